@@ -3,16 +3,19 @@ package app;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.animation.FadeTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Separator;
@@ -29,14 +32,20 @@ import javafx.scene.media.MediaPlayer;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import log.Log;
+import log.Logger;
+import model.Dish;
 import model.GraphModel;
+import model.Staffing;
 import model.TableType;
+import sim.MonteCarloRunner;
 import sim.SimulationEngine;
 import ui.GridEditor;
 import ui.KitchenQueuePane;
 import ui.RobotSimulationPane;
 
 public class Main extends Application {
+    private static final Logger LOG = Log.logger("app");
 
     private final GraphModel gm = new GraphModel(); //restaurant layout
     private final SimulationEngine sim = new SimulationEngine(gm); //simulate engine
@@ -52,8 +61,7 @@ public class Main extends Application {
     private Button beginSimButton;
     
     
-    private List<String> simulationTimes = new ArrayList<>(); //history of run times
-    private int simulationRound = 0; //total runs
+    private List<Long> simulationTimes = new ArrayList<>(); //history of run times (simulated ms), round n is index n-1
 
     
     private static Main instance;
@@ -170,17 +178,9 @@ public class Main extends Application {
                     stage.toFront();
                     
                     
-                    if (tabRobotSim != null && tabRobotSim.getContent() instanceof RobotSimulationPane) { //save this round's data
-                        RobotSimulationPane robotPane = (RobotSimulationPane) tabRobotSim.getContent();
-                        String currentTime = robotPane.getCurrentTimerText();
-                        
-                        
-                        simulationRound++;
-                        String timeEntry = "Round " + simulationRound + ": " + currentTime;
-                        simulationTimes.add(timeEntry);
-                        
-                        System.out.println("Saved simulation time: " + timeEntry);
-                    }
+                    //save this round's data
+                    simulationTimes.add(sim.makespanMs());
+                    LOG.info("Saved simulation time: Round {}: {}", simulationTimes.size(), formatTime(sim.makespanMs()));
                 });
             }
         });
@@ -199,7 +199,6 @@ public class Main extends Application {
 
     public void resetSimulationHistory() { //History reset when the reset btn is pressed
         simulationTimes.clear();
-        simulationRound = 0;
     }
 
     private Parent wrapWithMute(Parent content) { //put the mute button in all tabs
@@ -247,10 +246,83 @@ public class Main extends Application {
             new Separator(),
             new Separator(),
             beginSim(ed),
-            createShowTimesButton()
+            createShowTimesButton(),
+            batchRunButton(ed),
+            new Separator(),
+            speedChooser(),
+            pauseToggle(),
+            robotChooser(),
+            chefChooser(),
+            crossTrainedChooser()
         );
     }
 
+    private ComboBox<String> speedChooser() { //how fast simulated time runs, can be changed during a sim
+        ComboBox<String> box = new ComboBox<>(FXCollections.observableArrayList(
+            "1x", "2x", "10x", "60x", "240x", "1000x", "Virtual"));
+        double current = sim.speed();
+        box.setValue(current == SimulationEngine.VIRTUAL ? "Virtual" : String.format("%.0fx", current));
+        box.setOnAction(e -> {
+            String v = box.getValue();
+            sim.setSpeed(v.equals("Virtual")
+                ? SimulationEngine.VIRTUAL
+                : Double.parseDouble(v.substring(0, v.length() - 1)));
+        });
+        return box;
+    }
+
+    private ComboBox<String> robotChooser() { //fleet size, takes effect on the next start or batch run
+        ComboBox<String> box = new ComboBox<>(FXCollections.observableArrayList(
+            "1 robot", "2 robots", "3 robots", "4 robots", "6 robots"));
+        int current = sim.robotCount();
+        box.setValue(current + (current == 1 ? " robot" : " robots"));
+        box.setOnAction(e -> {
+            String v = box.getValue();
+            sim.setRobotCount(Integer.parseInt(v.substring(0, v.indexOf(' '))));
+        });
+        return box;
+    }
+
+    private ComboBox<String> chefChooser() { //chefs at every station, takes effect on the next start or batch run
+        ComboBox<String> box = new ComboBox<>(FXCollections.observableArrayList(
+            "1 chef/station", "2 chefs/station", "3 chefs/station"));
+        GraphModel gm = sim.getGraphModel();
+        int current = gm.staffing().chefs(Dish.values()[0]);
+        box.setValue(current + (current == 1 ? " chef/station" : " chefs/station"));
+        box.setOnAction(e -> {
+            String v = box.getValue();
+            int chefs = Integer.parseInt(v.substring(0, v.indexOf(' ')));
+            gm.setStaffing(Staffing.uniform(chefs, gm.staffing().crossTrained()));
+        });
+        return box;
+    }
+
+    private ComboBox<String> crossTrainedChooser() { //chefs who help whichever station is furthest behind
+        ComboBox<String> box = new ComboBox<>(FXCollections.observableArrayList(
+            "0 cross-trained", "1 cross-trained", "2 cross-trained", "4 cross-trained"));
+        GraphModel gm = sim.getGraphModel();
+        box.setValue(gm.staffing().crossTrained() + " cross-trained");
+        box.setOnAction(e -> {
+            String v = box.getValue();
+            int crossTrained = Integer.parseInt(v.substring(0, v.indexOf(' ')));
+            gm.setStaffing(new Staffing(gm.staffing().chefsPerStation(), crossTrained));
+        });
+        return box;
+    }
+
+    private ToggleButton pauseToggle() { //freeze the simulation clock
+        ToggleButton btn = new ToggleButton("Pause");
+        configureToggleButton(btn);
+        btn.setOnAction(e -> {
+            if (btn.isSelected()) {
+                sim.pause();
+            } else {
+                sim.resume();
+            }
+        });
+        return btn;
+    }
+
     private void configureToggleButton(ToggleButton btn) { //apply the styles to all toggle buttons
         btn.setStyle(
           "-fx-focus-color: transparent;" +
@@ -379,8 +451,8 @@ public class Main extends Application {
         averageLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
         
         VBox timesList = new VBox(5);
-        for (String timeEntry : simulationTimes) {
-            Label timeLabel = new Label(timeEntry);
+        for (int i = 0; i < simulationTimes.size(); i++) {
+            Label timeLabel = new Label("Round " + (i + 1) + ": " + formatTime(simulationTimes.get(i)));
             timesList.getChildren().add(timeLabel);
         }
         
@@ -402,36 +474,44 @@ public class Main extends Application {
         if (simulationTimes.isEmpty()) { //default if no sim has been run
             return "00:00";
         }
-        
-        int totalSeconds = 0;
-        int count = 0;
-        
-        for (String timeEntry : simulationTimes) {
-            
-            
-            String timePart = timeEntry.substring(timeEntry.indexOf(":") + 2);
-            
-            
-            String[] parts = timePart.split(":"); //split minute and second from xx:yy format
-            if (parts.length == 2) {
-                try {
-                    int minutes = Integer.parseInt(parts[0]);
-                    int seconds = Integer.parseInt(parts[1]);
-                    totalSeconds += (minutes * 60) + seconds;
-                    count++;
-                } catch (NumberFormatException e) {
-                    
-                    System.err.println("Could not parse time: " + timePart);
-                }
-            }
+        long total = 0;
+        for (long ms : simulationTimes) {
+            total += ms;
         }
-        
-        
-        int avgSeconds = totalSeconds / count; //calculate the average time
-        int avgMinutes = avgSeconds / 60;
-        int avgRemainingSeconds = avgSeconds % 60;
-        
-        return String.format("%02d:%02d", avgMinutes, avgRemainingSeconds);
+        return formatTime(total / simulationTimes.size());
+    }
+
+    private static String formatTime(long ms) { //mm:ss
+        long seconds = ms / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    private Button batchRunButton(GridEditor ed) { //run many seeded services of this layout in the background
+        Button btn = new Button("Batch Run");
+        btn.setOnAction(e -> {
+            if (!ed.validateGraph()) {
+                return;
+            }
+            int replications = 1000;
+            long seed = System.currentTimeMillis();
+            MonteCarloRunner runner = sim.monteCarloRunner(); //reads the layout, so on the FX thread
+            btn.setDisable(true);
+            CompletableFuture.supplyAsync(() -> runner.run(replications, seed))
+                .whenComplete((summary, error) -> Platform.runLater(() -> {
+                    btn.setDisable(false);
+                    Alert alert = new Alert(error == null ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+                    alert.setTitle("Batch Run");
+                    alert.setHeaderText(replications + " services, seed " + seed);
+                    alert.setContentText(error == null ? summary.toString() : String.valueOf(error.getCause()));
+                    alert.show();
+                }));
+        });
+        return btn;
+    }
+
+    @Override
+    public void stop() { //window closed: stop the engine thread and let go of the layout
+        sim.shutdown();
     }
 
     public static void main(String[] args) {
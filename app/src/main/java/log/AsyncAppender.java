@@ -0,0 +1,155 @@
+package log;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log lines on a background "log-writer" thread. Logging threads only put an Entry in
+ * an MpscRing, no lock and no console write on their side; the writer formats whatever has
+ * piled up and prints it in one go, then sleeps until the next line wakes it. When the ring is
+ * full the line is dropped and counted rather than making a hot path wait for the console.
+ */
+public final class AsyncAppender {
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    //one line, not formatted yet
+    record Entry(Level level, String logger, String msg, int args, Object a, Object b, Object c) {
+        String format() {
+            if (args == 0) return msg;
+            StringBuilder sb = new StringBuilder(msg.length() + 16 * args);
+            int from = 0;
+            for (int i = 0; i < args; i++) {
+                int at = msg.indexOf("{}", from);
+                if (at < 0) break;
+                sb.append(msg, from, at).append(i == 0 ? a : i == 1 ? b : c);
+                from = at + 2;
+            }
+            return sb.append(msg, from, msg.length()).toString();
+        }
+    }
+
+    private final MpscRing<Entry> ring;
+    private final PrintStream out; //trace to info
+    private final PrintStream err; //warn and error
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean sleeping; //the writer is parked or about to, the next append wakes it
+    private volatile boolean closed;
+    private volatile boolean writerDone; //the writer has left its loop, late lines are drained under the lock
+
+    public AsyncAppender(PrintStream out, PrintStream err, int capacity) {
+        this.ring = new MpscRing<>(capacity);
+        this.out = out;
+        this.err = err;
+        this.writer = new Thread(this::run, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        this.shutdownHook = new Thread(this::flush, "log-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    void append(Entry e) {
+        if (closed || !ring.offer(e)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        accepted.incrementAndGet();
+        if (sleeping) LockSupport.unpark(writer);
+        //close() can land between the check and the offer; once the writer is gone nobody else
+        //would poll this line, so write it here
+        if (writerDone) drainLate();
+    }
+
+    public long dropped() { return dropped.get(); }
+
+    //wait (up to a second) until everything appended so far is written
+    public void flush() {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (written.get() < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            Thread.onSpinWait();
+        }
+    }
+
+    //write what is left and stop the writer thread; later lines are dropped
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            //the JVM is already shutting down, the hook runs anyway
+        }
+    }
+
+    private void run() {
+        StringBuilder outBatch = new StringBuilder();
+        StringBuilder errBatch = new StringBuilder();
+        long reportedDrops = 0;
+        while (true) {
+            boolean last = closed; //read before draining, so nothing appended before close is left behind
+            int n = drain(outBatch, errBatch);
+            long drops = dropped.get();
+            if (drops > reportedDrops) {
+                errBatch.append("[LOG] ").append(drops - reportedDrops).append(" lines dropped, the log could not keep up\n");
+                reportedDrops = drops;
+            }
+            print(outBatch, errBatch);
+            written.addAndGet(n);
+            if (n > 0) continue;
+            if (last) break;
+            //park until an append sees the flag; the ring is checked again after setting it, so an
+            //append that missed the flag has its line seen here
+            sleeping = true;
+            if (ring.isEmpty() && !closed) LockSupport.park(this);
+            sleeping = false;
+        }
+        //an append that got past the closed check may still be offering: from here on whoever
+        //sees writerDone drains, and this last pass covers an offer that came before the flag
+        writerDone = true;
+        drainLate();
+    }
+
+    //the ring has a single consumer; after the writer is done that is whoever holds this lock
+    private synchronized void drainLate() {
+        StringBuilder outBatch = new StringBuilder();
+        StringBuilder errBatch = new StringBuilder();
+        int n = drain(outBatch, errBatch);
+        print(outBatch, errBatch);
+        written.addAndGet(n);
+    }
+
+    private int drain(StringBuilder outBatch, StringBuilder errBatch) {
+        int n = 0;
+        Entry e;
+        while ((e = ring.poll()) != null) {
+            (e.level().compareTo(Level.WARN) >= 0 ? errBatch : outBatch).append(e.format()).append('\n');
+            n++;
+        }
+        return n;
+    }
+
+    private void print(StringBuilder outBatch, StringBuilder errBatch) {
+        if (outBatch.length() > 0) {
+            out.print(outBatch);
+            out.flush();
+            outBatch.setLength(0);
+        }
+        if (errBatch.length() > 0) {
+            err.print(errBatch);
+            err.flush();
+            errBatch.setLength(0);
+        }
+    }
+}
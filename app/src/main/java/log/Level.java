@@ -0,0 +1,16 @@
+package log;
+
+//how much a log line matters, a logger set to a level writes that level and everything above
+public enum Level {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    //-Dsim.log=<level> style names, case does not matter
+    public static Level parse(String name, Level fallback) {
+        if (name == null) return fallback;
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point of the logging: named Loggers that share one global threshold and one
+ * AsyncAppender, which does the formatting and the console writes on its own thread.
+ *
+ *   -Dsim.log=<trace|debug|info|warn|error|off>   global threshold, info by default
+ *   -Dsim.log.<name>=<level>                       threshold of one logger, e.g. -Dsim.log.ui=debug
+ *
+ * Batch runs (Monte Carlo, replay, headless) use Logger.OFF and write nothing at any level.
+ */
+public final class Log {
+    private static volatile Level level = Level.parse(System.getProperty("sim.log"), Level.INFO);
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static volatile AsyncAppender appender;
+
+    private Log() {}
+
+    public static Logger logger(String name) {
+        return loggers.computeIfAbsent(name,
+            n -> new Logger(n, Level.parse(System.getProperty("sim.log." + n), null)));
+    }
+
+    public static Level level() { return level; }
+
+    public static void setLevel(Level l) {
+        level = l;
+    }
+
+    //created on the first line that is actually written, so a silent run never starts the writer
+    static AsyncAppender appender() {
+        AsyncAppender a = appender;
+        if (a == null) {
+            synchronized (Log.class) {
+                a = appender;
+                if (a == null) {
+                    a = new AsyncAppender(System.out, System.err, AsyncAppender.DEFAULT_CAPACITY);
+                    appender = a;
+                }
+            }
+        }
+        return a;
+    }
+
+    //wait until every line logged so far is written, e.g. before printing a report after it
+    public static void flush() {
+        AsyncAppender a = appender;
+        if (a != null) a.flush();
+    }
+}
@@ -0,0 +1,60 @@
+package log;
+
+/**
+ * Where code logs to. Every call first compares the level with the threshold, two field reads,
+ * and returns before anything is allocated when the line would not be written; the fixed
+ * argument overloads avoid even the varargs array. Messages are templates with {} for each
+ * argument, filled in later on the log writer thread, so arguments must not change afterwards
+ * (strings, numbers, records). Where building an argument costs something itself, check
+ * isEnabled first.
+ */
+public final class Logger {
+    public static final Logger OFF = new Logger("off", Level.OFF); //for batch runs: never writes
+
+    private final String name;
+    private volatile Level level; //null: follow Log.level()
+
+    Logger(String name, Level level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    public String name() { return name; }
+
+    //this logger's own threshold, null to follow the global one again
+    public void setLevel(Level level) {
+        if (this == OFF) throw new UnsupportedOperationException("The OFF logger stays off");
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level l) {
+        Level threshold = level != null ? level : Log.level();
+        return l.compareTo(threshold) >= 0 && l != Level.OFF;
+    }
+
+    public boolean isDebug() { return isEnabled(Level.DEBUG); }
+    public boolean isInfo() { return isEnabled(Level.INFO); }
+
+    public void debug(String msg) { if (isEnabled(Level.DEBUG)) write(Level.DEBUG, msg, 0, null, null, null); }
+    public void debug(String msg, Object a) { if (isEnabled(Level.DEBUG)) write(Level.DEBUG, msg, 1, a, null, null); }
+    public void debug(String msg, Object a, Object b) { if (isEnabled(Level.DEBUG)) write(Level.DEBUG, msg, 2, a, b, null); }
+    public void debug(String msg, Object a, Object b, Object c) { if (isEnabled(Level.DEBUG)) write(Level.DEBUG, msg, 3, a, b, c); }
+
+    public void info(String msg) { if (isEnabled(Level.INFO)) write(Level.INFO, msg, 0, null, null, null); }
+    public void info(String msg, Object a) { if (isEnabled(Level.INFO)) write(Level.INFO, msg, 1, a, null, null); }
+    public void info(String msg, Object a, Object b) { if (isEnabled(Level.INFO)) write(Level.INFO, msg, 2, a, b, null); }
+    public void info(String msg, Object a, Object b, Object c) { if (isEnabled(Level.INFO)) write(Level.INFO, msg, 3, a, b, c); }
+
+    public void warn(String msg) { if (isEnabled(Level.WARN)) write(Level.WARN, msg, 0, null, null, null); }
+    public void warn(String msg, Object a) { if (isEnabled(Level.WARN)) write(Level.WARN, msg, 1, a, null, null); }
+    public void warn(String msg, Object a, Object b) { if (isEnabled(Level.WARN)) write(Level.WARN, msg, 2, a, b, null); }
+    public void warn(String msg, Object a, Object b, Object c) { if (isEnabled(Level.WARN)) write(Level.WARN, msg, 3, a, b, c); }
+
+    public void error(String msg) { if (isEnabled(Level.ERROR)) write(Level.ERROR, msg, 0, null, null, null); }
+    public void error(String msg, Object a) { if (isEnabled(Level.ERROR)) write(Level.ERROR, msg, 1, a, null, null); }
+    public void error(String msg, Object a, Object b) { if (isEnabled(Level.ERROR)) write(Level.ERROR, msg, 2, a, b, null); }
+
+    private void write(Level l, String msg, int args, Object a, Object b, Object c) {
+        Log.appender().append(new AsyncAppender.Entry(l, name, msg, args, a, b, c));
+    }
+}
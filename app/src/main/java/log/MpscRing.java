@@ -0,0 +1,91 @@
+package log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producer threads and one consumer thread.
+ *
+ * Every slot carries a sequence number telling whose turn it is: a producer claims the next
+ * position with one CAS on the tail once the slot's sequence says it is free, writes the item
+ * and publishes it by bumping the sequence; the consumer takes items in position order as
+ * soon as their sequence says they are written. Nobody ever blocks on a lock, a full ring
+ * just makes offer() return false.
+ *
+ * The log writer and the engine's UI event bus both sit on one.
+ */
+public class MpscRing<T> {
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequence; //== position: free for that position, == position + 1: written
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); //next position a producer claims
+    private long head; //next position to take, only touched by the consumer
+
+    //capacity is rounded up to a power of two
+    public MpscRing(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        items = new AtomicReferenceArray<>(size);
+        sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    public int capacity() { return mask + 1; }
+
+    //any thread; false if the ring is full
+    public boolean offer(T item) {
+        if (item == null) throw new NullPointerException("item");
+        while (true) {
+            long pos = tail.get();
+            int slot = (int) (pos & mask);
+            long seq = sequence.get(slot);
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.set(slot, item);
+                    sequence.set(slot, pos + 1); //publish
+                    return true;
+                }
+            } else if (seq < pos) {
+                return false; //the consumer has not taken the item a lap ago yet
+            }
+            //else another producer claimed pos first, try the next one
+        }
+    }
+
+    //consumer thread only; next item or null if none is written yet
+    public T poll() {
+        int slot = (int) (head & mask);
+        if (sequence.get(slot) != head + 1) return null;
+        T item = items.get(slot);
+        items.set(slot, null);
+        sequence.set(slot, head + mask + 1); //free for the producer one lap ahead
+        head++;
+        return item;
+    }
+
+    //consumer thread only; hand up to max items to sink, returns how many
+    public int drain(Consumer<? super T> sink, int max) {
+        int n = 0;
+        T item;
+        while (n < max && (item = poll()) != null) {
+            sink.accept(item);
+            n++;
+        }
+        return n;
+    }
+
+    //a guess, exact only while nobody offers or polls
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
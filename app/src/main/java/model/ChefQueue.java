@@ -7,64 +7,98 @@ import java.util.List;
 import java.util.Queue;
 
 /**
- * It tracks when the chef will be available and computes finish times.
+ * One cooking station (one per Dish): the orders waiting for a chef and the ones on the stove.
+ * Which chef cooks what, and when, is decided by the kitchen; the station only keeps track.
  */
 public class ChefQueue {
-    private final Queue<Order> q = new ArrayDeque<>();
-    // Timestamp (ms) when this chef will be free to start the next order
-    private long availableAtMs = 0;
+    //an order on the stove and when it will be done
+    public record Cooking(Order order, long finishMs) {}
 
-    /** Enqueue a new order for this chef. */
+    private final Queue<Order> waiting = new ArrayDeque<>();
+    private final List<Cooking> cooking = new ArrayList<>(); //sorted by finish time
+    // Timestamp (ms) when the last order of this station came off the stove
+    private long lastFinishMs = 0;
+
+    /** Enqueue a new order for this station. */
     public void enqueue(Order o) {
-        q.add(o);
+        waiting.add(o);
     }
 
-    /**
-     * Process all orders that have finished cooking by nowMs.
-     * @param nowMs current timestamp in ms
-     * @return list of orders completed by nowMs
-     */
-    public List<Order> update(long nowMs) {
-        List<Order> done = new ArrayList<>();
-        // Continuously check head order
-        while (!q.isEmpty()) {
-            Order head = q.peek();
-            // Start time is when chef is free or order placed, whichever is later
-            long startMs = Math.max(availableAtMs, head.placedAtMs());
-            long finishMs = startMs + head.dish().cookSec() * 1000L;
-            if (finishMs <= nowMs) {
-                // Order finished
-                availableAtMs = finishMs;
-                done.add(q.poll());
-            } else {
-                break;
+    /** Next waiting order, or null; it stays in the queue. */
+    public Order peekWaiting() {
+        return waiting.peek();
+    }
+
+    /** Take the next waiting order for a chef to cook, or null if none is waiting. */
+    public Order takeWaiting() {
+        return waiting.poll();
+    }
+
+    /** A chef put o on the stove; it is done at finishMs. */
+    public void startCooking(Order o, long finishMs) {
+        int i = 0;
+        while (i < cooking.size() && cooking.get(i).finishMs() <= finishMs) i++;
+        cooking.add(i, new Cooking(o, finishMs));
+    }
+
+    /** o came off the stove. */
+    public void finishCooking(Order o) {
+        for (int i = 0; i < cooking.size(); i++) {
+            Cooking c = cooking.get(i);
+            if (c.order() == o) {
+                cooking.remove(i);
+                lastFinishMs = Math.max(lastFinishMs, c.finishMs());
+                return;
             }
         }
-        return done;
+        throw new IllegalArgumentException("Not cooking at this station: " + o);
     }
 
     /**
-     * Read-only view of the queue for UI.
+     * Read-only view of the station for UI: orders on the stove (soonest first), then the waiting ones.
      */
     public Collection<Order> getQueueReadonly() {
-        return Collections.unmodifiableCollection(q);
+        List<Order> all = new ArrayList<>(cooking.size() + waiting.size());
+        for (Cooking c : cooking) all.add(c.order());
+        all.addAll(waiting);
+        return Collections.unmodifiableList(all);
+    }
+
+    public List<Cooking> getCookingReadonly() {
+        return Collections.unmodifiableList(cooking);
+    }
+
+    public Collection<Order> getWaitingReadonly() {
+        return Collections.unmodifiableCollection(waiting);
+    }
+
+    /** Cooking time of everything still waiting, how far behind the station is. */
+    public long waitingWorkMs() {
+        long sum = 0;
+        for (Order o : waiting) sum += o.dish().cookSec() * 1000L;
+        return sum;
     }
 
     /**
-     * Returns the finish timestamp (ms) of the current head order,
-     * or the availability timestamp if no pending orders.
+     * Returns the finish timestamp (ms) of the order that is done next,
+     * or when the last order was done if nothing is on the stove.
      */
     public long getFinishTimeMs() {
-        Order head = q.peek();
-        if (head == null) {
-            return availableAtMs;
-        }
-        long startMs = Math.max(availableAtMs, head.placedAtMs());
-        return startMs + head.dish().cookSec() * 1000L;
+        return cooking.isEmpty() ? lastFinishMs : cooking.get(0).finishMs();
+    }
+
+    /** Snapshot of the station for another thread to read while this one keeps changing. */
+    public ChefQueue copy() {
+        ChefQueue c = new ChefQueue();
+        c.waiting.addAll(waiting);
+        c.cooking.addAll(cooking);
+        c.lastFinishMs = lastFinishMs;
+        return c;
     }
 
     public void clear() {
-        q.clear();
-        availableAtMs = 0;
+        waiting.clear();
+        cooking.clear();
+        lastFinishMs = 0;
     }
-}
\ No newline at end of file
+}
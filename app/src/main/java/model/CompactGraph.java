@@ -0,0 +1,102 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable compressed-sparse-row snapshot of a Graph.
+ * Node names are interned to dense ids 0..size()-1 once; the arcs leaving node u
+ * are targets[offsets[u] .. offsets[u + 1]) with the matching weights, so a traversal
+ * only touches primitive arrays and never hashes a String.
+ */
+public final class CompactGraph {
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets; //size() + 1 entries
+    private final int[] targets; //one entry per directed arc
+    private final int[] weights;
+    private final int[] cols; //grid cell of each node, null if any node has no position
+    private final int[] rows;
+
+    CompactGraph(Map<String, List<Graph.Edge>> adjacencyList, Map<String, java.awt.Point> positions) {
+        int n = adjacencyList.size();
+        names = adjacencyList.keySet().toArray(new String[0]);
+        ids = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ids.put(names[i], i);
+        }
+        offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + adjacencyList.get(names[i]).size();
+        }
+        targets = new int[offsets[n]];
+        weights = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int k = offsets[i];
+            for (Graph.Edge e : adjacencyList.get(names[i])) {
+                targets[k] = ids.get(e.getDest());
+                weights[k] = e.getWeight();
+                k++;
+            }
+        }
+        if (positions.keySet().containsAll(ids.keySet())) {
+            cols = new int[n];
+            rows = new int[n];
+            for (int i = 0; i < n; i++) {
+                java.awt.Point p = positions.get(names[i]);
+                cols[i] = p.x;
+                rows[i] = p.y;
+            }
+        } else {
+            cols = null;
+            rows = null;
+        }
+    }
+
+    public static CompactGraph of(Graph graph) {
+        return graph.compact();
+    }
+
+    public int size() { return names.length; }
+    public int arcCount() { return targets.length; } //directed arcs, 2 per undirected edge
+
+    //dense id of a node name, -1 if the node is not in the graph
+    public int id(String name) {
+        Integer i = ids.get(name);
+        return i == null ? -1 : i;
+    }
+
+    public String name(int id) { return names[id]; }
+
+    public int arcsStart(int node) { return offsets[node]; }
+    public int arcsEnd(int node) { return offsets[node + 1]; }
+    public int target(int arc) { return targets[arc]; }
+    public int weight(int arc) { return weights[arc]; }
+
+    public boolean hasPositions() { return cols != null; }
+
+    //Manhattan distance in grid cells. Every unit of edge weight is one step to a neighbouring
+    //cell, so this never overestimates the remaining distance (0 when positions are unknown)
+    public int gridDistance(int u, int v) {
+        if (cols == null) return 0;
+        return Math.abs(cols[u] - cols[v]) + Math.abs(rows[u] - rows[v]);
+    }
+
+    //shortest path between two ids as a list of ids, empty if there is no path
+    public int[] shortestPath(int source, int target) {
+        return ShortestPaths.path(this, source, target);
+    }
+
+    //translate an id path back to node names
+    public List<String> names(int[] path) {
+        if (path.length == 0) return Collections.emptyList();
+        List<String> out = new ArrayList<>(path.length);
+        for (int id : path) {
+            out.add(names[id]);
+        }
+        return out;
+    }
+}
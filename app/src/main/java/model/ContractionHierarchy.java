@@ -0,0 +1,363 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contraction hierarchy over a CompactGraph, for layouts where even a tuned Dijkstra
+ * is too slow for thousands of batch queries.
+ *
+ * Preprocessing contracts the nodes one by one in order of importance (edge difference
+ * with lazy updates); whenever removing a node would lengthen a shortest path between two
+ * of its neighbours a shortcut edge is added. A query is then two small Dijkstra searches
+ * that only walk "upwards" to more important nodes, one from each end, and a shortcut is
+ * unpacked back into the original nodes so the result is a normal node-name path.
+ */
+public final class ContractionHierarchy {
+    private static final int WITNESS_SETTLE_LIMIT = 64; //nodes a witness search may settle before giving up
+
+    private final CompactGraph graph;
+    private final int[] rank; //contraction order, higher = more important
+    //upward arcs in CSR form: from u to a higher-ranked node, middle = contracted node of a shortcut or -1
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddle;
+    private final int shortcuts;
+
+    private final ThreadLocal<Query> queries;
+
+    private ContractionHierarchy(CompactGraph graph, int[] rank, List<List<int[]>> up, int shortcuts) {
+        this.graph = graph;
+        this.rank = rank;
+        this.shortcuts = shortcuts;
+        int n = graph.size();
+        upOffsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            upOffsets[u + 1] = upOffsets[u] + up.get(u).size();
+        }
+        upTargets = new int[upOffsets[n]];
+        upWeights = new int[upOffsets[n]];
+        upMiddle = new int[upOffsets[n]];
+        for (int u = 0; u < n; u++) {
+            int k = upOffsets[u];
+            for (int[] arc : up.get(u)) {
+                upTargets[k] = arc[0];
+                upWeights[k] = arc[1];
+                upMiddle[k] = arc[2];
+                k++;
+            }
+        }
+        queries = ThreadLocal.withInitial(() -> new Query(n));
+    }
+
+    public static ContractionHierarchy build(Graph graph) {
+        return build(graph.compact());
+    }
+
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return new Builder(graph).run();
+    }
+
+    public CompactGraph graph() { return graph; }
+    public int shortcutCount() { return shortcuts; }
+
+    //shortest distance between two node names, ShortestPaths.INF if unreachable or unknown
+    public int distance(String from, String to) {
+        int s = graph.id(from);
+        int t = graph.id(to);
+        if (s < 0 || t < 0) return from.equals(to) ? 0 : ShortestPaths.INF;
+        Query q = queries.get();
+        q.run(s, t);
+        return q.best;
+    }
+
+    //shortest path as node names, empty if there is no path
+    public List<String> path(String from, String to) {
+        int s = graph.id(from);
+        int t = graph.id(to);
+        if (s < 0 || t < 0) {
+            return from.equals(to) ? List.of(from) : Collections.emptyList();
+        }
+        return graph.names(path(s, t));
+    }
+
+    public int[] path(int s, int t) {
+        Query q = queries.get();
+        q.run(s, t);
+        if (q.best == ShortestPaths.INF) return new int[0];
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(s);
+        //forward half: s up to the meeting node
+        List<Integer> forwardArcs = new ArrayList<>();
+        for (int v = q.meet; v != s; v = q.fromOf(0, v)) {
+            forwardArcs.add(q.arcOf(0, v));
+        }
+        Collections.reverse(forwardArcs);
+        int cur = s;
+        for (int arc : forwardArcs) {
+            unpack(cur, upTargets[arc], upMiddle[arc], nodes);
+            cur = upTargets[arc];
+        }
+        //backward half: the meeting node down to t
+        for (int v = q.meet; v != t; ) {
+            int arc = q.arcOf(1, v);
+            int below = q.fromOf(1, v);
+            unpack(v, below, upMiddle[arc], nodes);
+            v = below;
+        }
+        int[] out = new int[nodes.size()];
+        for (int i = 0; i < out.length; i++) out[i] = nodes.get(i);
+        return out;
+    }
+
+    //append the original nodes of the edge a-b (without a) to the path
+    private void unpack(int a, int b, int middle, List<Integer> out) {
+        if (middle < 0) {
+            out.add(b);
+            return;
+        }
+        unpack(a, middle, middleOf(a, middle), out);
+        unpack(middle, b, middleOf(middle, b), out);
+    }
+
+    //middle node of the cheapest stored edge between a and b; it is an upward arc of the lower-ranked end
+    private int middleOf(int a, int b) {
+        int low = rank[a] < rank[b] ? a : b;
+        int high = low == a ? b : a;
+        int bestWeight = Integer.MAX_VALUE;
+        int middle = -1;
+        for (int k = upOffsets[low]; k < upOffsets[low + 1]; k++) {
+            if (upTargets[k] == high && upWeights[k] < bestWeight) {
+                bestWeight = upWeights[k];
+                middle = upMiddle[k];
+            }
+        }
+        return middle;
+    }
+
+    //bidirectional upward search state, one per thread, reset by epoch
+    private final class Query {
+        final int[][] dist = new int[2][];
+        final int[][] from = new int[2][]; //predecessor node
+        final int[][] via = new int[2][];  //upward arc used to reach the node
+        final int[][] stamp = new int[2][];
+        final IndexedMinHeap[] heap = new IndexedMinHeap[2];
+        int epoch;
+        int best;
+        int meet;
+
+        Query(int n) {
+            for (int side = 0; side < 2; side++) {
+                dist[side] = new int[n];
+                from[side] = new int[n];
+                via[side] = new int[n];
+                stamp[side] = new int[n];
+                heap[side] = new IndexedMinHeap(n);
+            }
+        }
+
+        int distOf(int side, int v) { return stamp[side][v] == epoch ? dist[side][v] : ShortestPaths.INF; }
+        int fromOf(int side, int v) { return from[side][v]; }
+        int arcOf(int side, int v) { return via[side][v]; }
+
+        void set(int side, int v, int d, int p, int arc) {
+            stamp[side][v] = epoch;
+            dist[side][v] = d;
+            from[side][v] = p;
+            via[side][v] = arc;
+        }
+
+        void run(int s, int t) {
+            if (++epoch == Integer.MAX_VALUE) {
+                for (int side = 0; side < 2; side++) java.util.Arrays.fill(stamp[side], 0);
+                epoch = 1;
+            }
+            heap[0].clear();
+            heap[1].clear();
+            best = ShortestPaths.INF;
+            meet = -1;
+            set(0, s, 0, -1, -1);
+            set(1, t, 0, -1, -1);
+            heap[0].push(s, 0);
+            heap[1].push(t, 0);
+            while (!heap[0].isEmpty() || !heap[1].isEmpty()) {
+                //both searches only climb, so once neither frontier can beat best we are done
+                int side;
+                if (heap[0].isEmpty()) side = 1;
+                else if (heap[1].isEmpty()) side = 0;
+                else side = heap[0].minKey() <= heap[1].minKey() ? 0 : 1;
+                if (heap[side].minKey() >= best) {
+                    heap[side].clear();
+                    continue;
+                }
+                int u = heap[side].poll();
+                int du = dist[side][u];
+                int other = distOf(1 - side, u);
+                if (other != ShortestPaths.INF && du + other < best) {
+                    best = du + other;
+                    meet = u;
+                }
+                for (int k = upOffsets[u]; k < upOffsets[u + 1]; k++) {
+                    int v = upTargets[k];
+                    int nd = du + upWeights[k];
+                    if (nd < distOf(side, v)) {
+                        set(side, v, nd, u, k);
+                        heap[side].push(v, nd);
+                    }
+                }
+            }
+        }
+    }
+
+    //node ordering and contraction, used once by build()
+    private static final class Builder {
+        final CompactGraph graph;
+        final int n;
+        final List<List<int[]>> adj = new ArrayList<>(); //remaining graph: {neighbour, weight, middle}
+        final List<List<int[]>> up = new ArrayList<>();
+        final boolean[] contracted;
+        final int[] deletedNeighbours;
+        final int[] rank;
+        int shortcuts;
+
+        //witness search scratch
+        final int[] wDist;
+        final int[] wStamp;
+        int wEpoch;
+        final IndexedMinHeap wHeap;
+
+        Builder(CompactGraph graph) {
+            this.graph = graph;
+            this.n = graph.size();
+            contracted = new boolean[n];
+            deletedNeighbours = new int[n];
+            rank = new int[n];
+            wDist = new int[n];
+            wStamp = new int[n];
+            wHeap = new IndexedMinHeap(n);
+            for (int u = 0; u < n; u++) {
+                adj.add(new ArrayList<>());
+                up.add(new ArrayList<>());
+            }
+            for (int u = 0; u < n; u++) {
+                for (int a = graph.arcsStart(u); a < graph.arcsEnd(u); a++) {
+                    int v = graph.target(a);
+                    if (v != u) addOrLower(u, v, graph.weight(a), -1);
+                }
+            }
+        }
+
+        //keep only the cheapest edge per neighbour
+        void addOrLower(int u, int v, int w, int middle) {
+            for (int[] arc : adj.get(u)) {
+                if (arc[0] == v) {
+                    if (w < arc[1]) {
+                        arc[1] = w;
+                        arc[2] = middle;
+                    }
+                    return;
+                }
+            }
+            adj.get(u).add(new int[] {v, w, middle});
+        }
+
+        ContractionHierarchy run() {
+            //lazy-update priority queue of nodes keyed by importance
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            int offset = 2 * n; //importance can be negative, keys are shifted
+            for (int v = 0; v < n; v++) {
+                order.push(v, importance(v) + offset);
+            }
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.poll();
+                int current = importance(v) + offset;
+                if (!order.isEmpty() && current > order.minKey()) {
+                    order.push(v, current); //stale priority, try again later
+                    continue;
+                }
+                contract(v);
+                rank[v] = next++;
+            }
+            return new ContractionHierarchy(graph, rank, up, shortcuts);
+        }
+
+        //edge difference plus the number of already contracted neighbours (spreads contraction evenly)
+        int importance(int v) {
+            int added = shortcutsNeeded(v, false);
+            int removed = adj.get(v).size();
+            return added - removed + deletedNeighbours[v];
+        }
+
+        void contract(int v) {
+            shortcutsNeeded(v, true);
+            contracted[v] = true;
+            for (int[] arc : adj.get(v)) {
+                int u = arc[0];
+                up.get(v).add(arc.clone()); //remaining neighbours are all contracted after v
+                adj.get(u).removeIf(back -> back[0] == v);
+                deletedNeighbours[u]++;
+            }
+            adj.get(v).clear();
+        }
+
+        //count (and optionally add) the shortcuts that contracting v requires
+        int shortcutsNeeded(int v, boolean add) {
+            List<int[]> neighbours = adj.get(v);
+            int count = 0;
+            for (int i = 0; i < neighbours.size(); i++) {
+                int[] in = neighbours.get(i);
+                int maxVia = 0;
+                for (int[] out : neighbours) {
+                    maxVia = Math.max(maxVia, in[1] + out[1]);
+                }
+                witnessSearch(in[0], v, maxVia);
+                for (int j = i + 1; j < neighbours.size(); j++) {
+                    int[] out = neighbours.get(j);
+                    int via = in[1] + out[1];
+                    int witness = wStamp[out[0]] == wEpoch ? wDist[out[0]] : ShortestPaths.INF;
+                    if (witness > via) {
+                        count++;
+                        if (add) {
+                            addOrLower(in[0], out[0], via, v);
+                            addOrLower(out[0], in[0], via, v);
+                            shortcuts++;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        //bounded Dijkstra from source in the remaining graph, skipping the node being contracted
+        void witnessSearch(int source, int skip, int limit) {
+            if (++wEpoch == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(wStamp, 0);
+                wEpoch = 1;
+            }
+            wHeap.clear();
+            wStamp[source] = wEpoch;
+            wDist[source] = 0;
+            wHeap.push(source, 0);
+            int settled = 0;
+            while (!wHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int u = wHeap.poll();
+                settled++;
+                int du = wDist[u];
+                if (du > limit) break;
+                for (int[] arc : adj.get(u)) {
+                    int x = arc[0];
+                    if (x == skip) continue;
+                    int nd = du + arc[1];
+                    if (wStamp[x] != wEpoch || nd < wDist[x]) {
+                        wStamp[x] = wEpoch;
+                        wDist[x] = nd;
+                        wHeap.push(x, nd);
+                    }
+                }
+            }
+        }
+    }
+}
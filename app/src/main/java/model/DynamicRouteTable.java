@@ -0,0 +1,202 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All-pairs distances and next hops of a GraphModel, kept up to date while the layout
+ * is edited so starting a simulation only has to copy them into a RouteTable.
+ *
+ * Adding an edge u-v is an O(n^2) relaxation of every pair through the new edge.
+ * Removing an edge only recomputes the shortest-path trees of the targets t for which
+ * the edge was tight (|d(t,u) - d(t,v)| == w); no other tree can have used it.
+ */
+public class DynamicRouteTable implements GraphModel.ChangeListener {
+    private static final int INF = RouteTable.UNREACHABLE;
+
+    private final GraphModel model;
+    private final Map<String, Integer> index = new HashMap<>(); //node id -> row/column
+    private final List<String> names = new ArrayList<>();
+    private final List<List<int[]>> adj = new ArrayList<>(); //{neighbour, steps}
+    private int n;
+    private int cap;
+    private int[] dist = new int[0]; //dist[from * cap + to]
+    private int[] next = new int[0]; //next[from * cap + to]
+    private int edgeCount;
+
+    private DynamicRouteTable(GraphModel model) {
+        this.model = model;
+        rebuild();
+    }
+
+    //a table that follows every later edit of the model, until detach
+    public static DynamicRouteTable attach(GraphModel model) {
+        DynamicRouteTable table = new DynamicRouteTable(model);
+        model.addChangeListener(table);
+        return table;
+    }
+
+    //stop following the model, the table keeps its last state
+    public void detach() {
+        model.removeChangeListener(this);
+    }
+
+    //current table as a RouteTable over node names, O(n^2) copy
+    public RouteTable snapshot() {
+        //cheap safety net in case the counts ever drift from the model
+        if (n != model.nodes().size() || edgeCount != model.edges().size()) {
+            rebuild();
+        }
+        int[] d = new int[n * n];
+        int[] nx = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(dist, i * cap, d, i * n, n);
+            System.arraycopy(next, i * cap, nx, i * n, n);
+        }
+        return new RouteTable(names.toArray(new String[0]), d, nx);
+    }
+
+    @Override
+    public void onNodeAdded(GraphModel.Node node) {
+        if (n == cap) grow(Math.max(16, cap * 2));
+        int i = n++;
+        index.put(node.id(), i);
+        names.add(node.name());
+        adj.add(new ArrayList<>());
+        for (int j = 0; j < n; j++) {
+            dist[i * cap + j] = INF;
+            dist[j * cap + i] = INF;
+            next[i * cap + j] = -1;
+            next[j * cap + i] = -1;
+        }
+        dist[i * cap + i] = 0;
+        next[i * cap + i] = i;
+    }
+
+    @Override
+    public void onEdgeAdded(GraphModel.Edge e) {
+        Integer a = index.get(e.from);
+        Integer b = index.get(e.to);
+        if (a == null || b == null) return;
+        int u = a, v = b, w = e.steps();
+        adj.get(u).add(new int[] {v, w});
+        adj.get(v).add(new int[] {u, w});
+        edgeCount++;
+        if (w >= dist[u * cap + v]) return; //an existing path is already as short
+        for (int i = 0; i < n; i++) {
+            int iu = dist[i * cap + u];
+            int iv = dist[i * cap + v];
+            if (iu == INF && iv == INF) continue;
+            for (int j = 0; j < n; j++) {
+                int best = dist[i * cap + j];
+                int vj = dist[v * cap + j];
+                int uj = dist[u * cap + j];
+                if (iu != INF && vj != INF && iu + w + vj < best) { //i ~> u - v ~> j
+                    best = iu + w + vj;
+                    dist[i * cap + j] = best;
+                    next[i * cap + j] = i == u ? v : next[i * cap + u];
+                }
+                if (iv != INF && uj != INF && iv + w + uj < best) { //i ~> v - u ~> j
+                    dist[i * cap + j] = iv + w + uj;
+                    next[i * cap + j] = i == v ? u : next[i * cap + v];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onEdgeRemoved(GraphModel.Edge e) {
+        Integer a = index.get(e.from);
+        Integer b = index.get(e.to);
+        if (a == null || b == null) return;
+        int u = a, v = b, w = e.steps();
+        removeArc(u, v, w);
+        removeArc(v, u, w);
+        edgeCount--;
+        //targets whose shortest-path tree may have used the edge
+        List<Integer> affected = new ArrayList<>();
+        for (int t = 0; t < n; t++) {
+            int tu = dist[t * cap + u];
+            int tv = dist[t * cap + v];
+            if (tu != INF && tv != INF && Math.abs(tu - tv) == w) {
+                affected.add(t);
+            }
+        }
+        int[] d = new int[n];
+        int[] parent = new int[n];
+        for (int t : affected) {
+            tree(t, d, parent);
+            for (int x = 0; x < n; x++) {
+                dist[x * cap + t] = d[x];
+                dist[t * cap + x] = d[x];
+                next[x * cap + t] = x == t ? t : parent[x];
+            }
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        index.clear();
+        names.clear();
+        adj.clear();
+        n = 0;
+        edgeCount = 0;
+    }
+
+    //recompute everything from the model's current content
+    private void rebuild() {
+        onCleared();
+        for (GraphModel.Node node : model.nodes()) {
+            onNodeAdded(node);
+        }
+        for (GraphModel.Edge e : model.edges()) {
+            onEdgeAdded(e);
+        }
+    }
+
+    private void removeArc(int from, int to, int w) {
+        List<int[]> arcs = adj.get(from);
+        for (int k = 0; k < arcs.size(); k++) {
+            if (arcs.get(k)[0] == to && arcs.get(k)[1] == w) {
+                arcs.remove(k);
+                return;
+            }
+        }
+    }
+
+    //Dijkstra from t; the graph is undirected, so parent[x] is the next hop from x towards t
+    private void tree(int t, int[] d, int[] parent) {
+        Arrays.fill(d, 0, n, INF);
+        Arrays.fill(parent, 0, n, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        d[t] = 0;
+        heap.push(t, 0);
+        while (!heap.isEmpty()) {
+            int x = heap.poll();
+            for (int[] arc : adj.get(x)) {
+                int y = arc[0];
+                int nd = d[x] + arc[1];
+                if (nd < d[y]) {
+                    d[y] = nd;
+                    parent[y] = x;
+                    heap.push(y, nd);
+                }
+            }
+        }
+    }
+
+    private void grow(int newCap) {
+        int[] d = new int[newCap * newCap];
+        int[] nx = new int[newCap * newCap];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(dist, i * cap, d, i * newCap, n);
+            System.arraycopy(next, i * cap, nx, i * newCap, n);
+        }
+        dist = d;
+        next = nx;
+        cap = newCap;
+    }
+}
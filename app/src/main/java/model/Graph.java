@@ -3,10 +3,30 @@ package model;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import log.Log;
+import log.Logger;
+
 
 
 public class Graph {
-    private Map<String, List<Edge>> adjacencyList = new HashMap<>(); //adjacency list storing connections of nodes
+    private static final Logger LOG = Log.logger("graph");
+    private Map<String, List<Edge>> adjacencyList = new LinkedHashMap<>(); //adjacency list storing connections of nodes
+    private Map<String, java.awt.Point> positions = new HashMap<>(); //grid cell (column, row) of each node, if known
+    private Map<String, Map<String, Integer>> cheapest = new HashMap<>(); //src -> dest -> lowest weight of the parallel edges
+    private CompactGraph compact; //cached CSR snapshot, dropped whenever the graph changes
+
+    //routing graph of an edited layout: nodes by name, edges as long as the grid steps walked
+    //along them, every node at its grid cell for the A* heuristic
+    public static Graph of(GraphModel layout) {
+        Graph g = new Graph();
+        for (GraphModel.Edge e : layout.edges()) {
+            g.addEdge(layout.nameOf(e.from), layout.nameOf(e.to), e.steps());
+        }
+        for (GraphModel.Node n : layout.nodes()) {
+            g.setPosition(n.name(), n.col(), n.row());
+        }
+        return g;
+    }
 
     // เพิ่ม Edge เข้าไปในกราฟ
     public void addEdge(String src, String dest, int weight) {
@@ -15,54 +35,57 @@ public class Graph {
         
         adjacencyList.get(src).add(new Edge(src, dest, weight));
         adjacencyList.get(dest).add(new Edge(dest, src, weight)); // add edge (undirected graph)
+        cheapest.computeIfAbsent(src, k -> new HashMap<>()).merge(dest, weight, Math::min);
+        cheapest.computeIfAbsent(dest, k -> new HashMap<>()).merge(src, weight, Math::min);
+        compact = null;
+    }
+
+    //record the grid cell of a node, used as the A* heuristic
+    public void setPosition(String node, int col, int row) {
+        positions.put(node, new java.awt.Point(col, row));
+        compact = null;
+    }
+
+    //int-indexed snapshot of the current graph, rebuilt only after the graph changes
+    public CompactGraph compact() {
+        if (compact == null) {
+            compact = new CompactGraph(adjacencyList, positions);
+        }
+        return compact;
     }
 
     // find the shortest path for every pair of nodes
     public List<String> dijkstra(String start, String end) {
-        System.err.println("[DIJKSTRA] Keys in adjacencyList: " + adjacencyList.keySet());
-        System.err.println("[DIJKSTRA] Checking for start=" + start + ", end=" + end);
-        if (!adjacencyList.containsKey(start) || !adjacencyList.containsKey(end)) {
-            System.err.println("[DIJKSTRA] Missing node: start=" + start + ", end=" + end);
+        CompactGraph g = compact();
+        int s = g.id(start);
+        int t = g.id(end);
+        if (s < 0 || t < 0) {
+            LOG.warn("[DIJKSTRA] Missing node: start={}, end={}", start, end);
             return Collections.emptyList();
         }
-        Map<String, Integer> distances = new HashMap<>();
-        Map<String, String> previousNodes = new HashMap<>();
-        PriorityQueue<Edge> pq = new PriorityQueue<>(Comparator.comparingInt(Edge::getWeight));
-        
-        for (String node : adjacencyList.keySet()) {
-            distances.put(node, Integer.MAX_VALUE);
-            previousNodes.put(node, null);
-        }
-        distances.put(start, 0);
-        
-        pq.add(new Edge(start, start, 0));
-
-        while (!pq.isEmpty()) {
-            Edge currentEdge = pq.poll();
-            String currentNode = currentEdge.getDest();
-
-            if (currentNode.equals(end)) break;
-
-            for (Edge edge : adjacencyList.getOrDefault(currentNode, Collections.emptyList())) {
-                String neighbor = edge.getDest();
-                int newDist = distances.get(currentNode) + edge.getWeight();
+        return g.names(g.shortestPath(s, t));
+    }
 
-                if (newDist < distances.get(neighbor)) {
-                    distances.put(neighbor, newDist);
-                    previousNodes.put(neighbor, currentNode);
-                    pq.add(new Edge(currentNode, neighbor, newDist));
-                }
-            }
+    //same result as dijkstra, but guided towards the target by the grid distance of setPosition
+    public List<String> aStar(String start, String end) {
+        CompactGraph g = compact();
+        int s = g.id(start);
+        int t = g.id(end);
+        if (s < 0 || t < 0) {
+            LOG.warn("[A*] Missing node: start={}, end={}", start, end);
+            return Collections.emptyList();
         }
+        return g.names(ShortestPaths.aStar(g, s, t));
+    }
 
-        List<String> path = new ArrayList<>();
-        String current = end;
-        while (current != null) {
-            path.add(current);
-            current = previousNodes.get(current);
+    //total weight of a path returned by dijkstra/aStar; parallel edges count at their cheapest,
+    //like the searches do
+    public int pathWeight(List<String> path) {
+        int total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            total += (int) getWeight(path.get(i), path.get(i + 1));
         }
-        Collections.reverse(path);
-        return path;
+        return total;
     }
 
     //class edge containing source node, destination node, weight, and a public getter
@@ -90,20 +113,29 @@ public class Graph {
         }
     }
 
+    //all node names in the graph
+    public Set<String> nodes() {
+        return Collections.unmodifiableSet(adjacencyList.keySet());
+    }
+
+    //edges leaving a node (empty if the node is unknown)
+    public List<Edge> neighbors(String node) {
+        return Collections.unmodifiableList(adjacencyList.getOrDefault(node, Collections.emptyList()));
+    }
+
     public List<Edge> getAllEdges() { //return a list of all edges
     return adjacencyList.values().stream()
         .flatMap(List::stream)
         .collect(Collectors.toList());
     }
 
-    //return the weight of edge from source to destination
+    //return the weight of edge from source to destination (the cheapest one if there are several), O(1)
     public double getWeight(String src, String dest) {
-        for (Edge e : adjacencyList.getOrDefault(src, Collections.emptyList())) {
-            if (e.getDest().equals(dest)) {
-                return e.getWeight();
-            }
+        Integer w = cheapest.getOrDefault(src, Collections.emptyMap()).get(dest);
+        if (w == null) {
+            throw new IllegalArgumentException("No edge from " + src + " to " + dest);
         }
-        throw new IllegalArgumentException("No edge from " + src + " to " + dest);
+        return w;
     }
 
 }
\ No newline at end of file
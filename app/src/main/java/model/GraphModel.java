@@ -2,14 +2,25 @@ package model;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 public class GraphModel {
+    //size of one grid cell in pixels; node x/y are the pixel centre of their cell
+    public static final int CELL_SIZE = 60;
+
     //node is kept as a record, containing its ID, name, xy coordinates, and a type of node
-    public record Node(String id, String name, double x, double y, TableType type) {}
+    public record Node(String id, String name, double x, double y, TableType type) {
+        public int col() { return (int) (x / CELL_SIZE); } //grid column of the node
+        public int row() { return (int) (y / CELL_SIZE); } //grid row of the node
+    }
 
     //edge containing the name of src node and dest node, list of cells that the edge was drawn on, weight
     public static class Edge {
@@ -22,11 +33,47 @@ public class GraphModel {
             this.cells  = new ArrayList<>(cells);
             this.weight = cells.size();
         }
+
+        //grid steps the robot walks along this edge: every cell plus the step into the destination node
+        public int steps() {
+            return cells.size() + 1;
+        }
+    }
+
+    //notified after every change made through addNode/addEdge/removeEdge/clear
+    public interface ChangeListener {
+        void onNodeAdded(Node n);
+        void onEdgeAdded(Edge e);
+        void onEdgeRemoved(Edge e);
+        void onCleared();
+    }
+
+    private final List<ChangeListener> changeListeners = new ArrayList<>();
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
     }
 
     //array list of all nodes and edges
     private final List<Node> nodes = new ArrayList<>();
-    private final List<Edge> edges = new ArrayList<>();
+    private final Set<Edge> edges = new LinkedHashSet<>(); //insertion order, O(1) removal (edges compare by identity)
+
+    //hash indexes kept in step with the lists above, so lookups never scan them
+    private final Map<String,Node>    nodesById    = new HashMap<>();
+    private final Map<String,Node>    nodesByName  = new HashMap<>();
+    private final Map<Integer,Node>   tablesByNumber = new HashMap<>();
+    private final Map<EdgeKey,List<Edge>> edgesByPair = new HashMap<>();
+
+    //unordered pair of node ids, (a, b) and (b, a) are the same key
+    private record EdgeKey(String lo, String hi) {
+        static EdgeKey of(String a, String b) {
+            return a.compareTo(b) <= 0 ? new EdgeKey(a, b) : new EdgeKey(b, a);
+        }
+    }
 
     //tables and junctions are kept in different maps
     private final Map<String,Integer> tableIds    = new HashMap<>();
@@ -37,8 +84,14 @@ public class GraphModel {
     public Optional<String> kitchenId() { return Optional.ofNullable(kitchenId); }
     public void setKitchenId(String id) { this.kitchenId = id; }
 
-    public Map<String,Integer> tableIds()    { return tableIds;    }
-    public Map<String,Integer> junctionIds() { return junctionIds; }
+    //who cooks in this restaurant, one chef per station unless configured
+    private Staffing staffing = Staffing.DEFAULT;
+    public Staffing staffing() { return staffing; }
+    public void setStaffing(Staffing staffing) { this.staffing = Objects.requireNonNull(staffing); }
+
+    public Map<String,Integer> tableIds()    { return Collections.unmodifiableMap(tableIds);    }
+    public Map<String,Integer> junctionIds() { return Collections.unmodifiableMap(junctionIds); }
+    public void setJunctionNumber(String id, int number) { junctionIds.put(id, number); } //the editor numbers the junctions it splits edges with
 
     //what kind of node is this, and its user-facing number
     public enum NodeKind { TABLE, JUNCTION, KITCHEN }
@@ -63,8 +116,26 @@ public class GraphModel {
         return Optional.empty();
     }
 
-    public List<Node> nodes() { return nodes; } //a getter to get all nodes in the graph
-    public List<Edge> edges() { return edges; } //a getter to get all edges in the graph
+    //read-only, every change has to go through addNode/addEdge/removeEdge/clear to keep the indexes right
+    public List<Node> nodes() { return Collections.unmodifiableList(nodes); } //a getter to get all nodes in the graph
+    public Collection<Edge> edges() { return Collections.unmodifiableCollection(edges); } //all edges, in the order they were added
+
+    //O(1) node lookups
+    public Optional<Node> findNode(String id)         { return Optional.ofNullable(nodesById.get(id)); }
+    public Optional<Node> findNodeByName(String name) { return Optional.ofNullable(nodesByName.get(name)); }
+    public Optional<Node> findTable(int tableNumber)  { return Optional.ofNullable(tablesByNumber.get(tableNumber)); }
+
+    //node name of a table number, e.g. 3 -> "T4-3", or the fallback if there is no such table
+    public String tableName(int tableNumber, String fallback) {
+        Node n = tablesByNumber.get(tableNumber);
+        return n != null ? n.name() : fallback;
+    }
+
+    //node name of an id, the id itself if unknown
+    public String nameOf(String id) {
+        Node n = nodesById.get(id);
+        return n != null ? n.name() : id;
+    }
 
     //add a new node with XY coordinates and its type
     public Node addNode(double x, double y, TableType type) {
@@ -91,6 +162,13 @@ public class GraphModel {
         }
         Node n = new Node(newId, newName, x, y, type);
         nodes.add(n);
+        nodesById.put(newId, n);
+        nodesByName.put(newName, n);
+        Integer tableNum = tableIds.get(newId);
+        if (tableNum != null) tablesByNumber.put(tableNum, n);
+        for (ChangeListener l : changeListeners) {
+            l.onNodeAdded(n);
+        }
         return n;
       }
       
@@ -100,22 +178,66 @@ public class GraphModel {
     public Edge addEdge(String fromId, String toId, List<Point> cellPath) {
         Edge e = new Edge(fromId, toId, cellPath);
         edges.add(e);
+        edgesByPair.computeIfAbsent(EdgeKey.of(fromId, toId), k -> new ArrayList<>(1)).add(e);
+        for (ChangeListener l : changeListeners) {
+            l.onEdgeAdded(e);
+        }
         return e;
     }
 
     //remove edge with src node, dest node
     public void removeEdge(String idA, String idB) {
-        edges.removeIf(e ->
-            (e.from.equals(idA) && e.to.equals(idB)) ||
-            (e.from.equals(idB) && e.to.equals(idA))
-        );
+        List<Edge> removed = edgesByPair.remove(EdgeKey.of(idA, idB));
+        if (removed == null) return;
+        for (Edge e : removed) {
+            edges.remove(e);
+        }
+        for (Edge e : removed) {
+            for (ChangeListener l : changeListeners) {
+                l.onEdgeRemoved(e);
+            }
+        }
+    }
+
+    //a separate model with the same nodes, edges, kitchen and staffing, without the listeners;
+    //later edits of this model do not show in the copy, so other threads can read it while editing goes on
+    public GraphModel copy() {
+        GraphModel c = new GraphModel();
+        c.nodes.addAll(nodes);
+        c.nodesById.putAll(nodesById);
+        c.nodesByName.putAll(nodesByName);
+        c.tablesByNumber.putAll(tablesByNumber);
+        for (Edge e : edges) {
+            Edge copy = new Edge(e.from, e.to, e.cells);
+            c.edges.add(copy);
+            c.edgesByPair.computeIfAbsent(EdgeKey.of(e.from, e.to), k -> new ArrayList<>(1)).add(copy);
+        }
+        c.tableIds.putAll(tableIds);
+        c.junctionIds.putAll(junctionIds);
+        c.kitchenId = kitchenId;
+        c.staffing = staffing; //immutable, replaced as a whole by setStaffing
+        return c;
+    }
+
+    //remove every node and edge
+    public void clear() {
+        nodes.clear();
+        edges.clear();
+        nodesById.clear();
+        nodesByName.clear();
+        tablesByNumber.clear();
+        edgesByPair.clear();
+        tableIds.clear();
+        junctionIds.clear();
+        kitchenId = null;
+        for (ChangeListener l : changeListeners) {
+            l.onCleared();
+        }
     }
 
     //find an edge in the graph with src node, dest node
     public Optional<Edge> findEdge(String idA, String idB) {
-        return edges.stream().filter(e ->
-            (e.from.equals(idA) && e.to.equals(idB)) ||
-            (e.from.equals(idB) && e.to.equals(idA))
-        ).findFirst();
+        List<Edge> found = edgesByPair.get(EdgeKey.of(idA, idB));
+        return found == null ? Optional.empty() : Optional.of(found.get(0));
     }
 }
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over int ids 0..capacity-1 with an index of each id's slot,
+ * so decrease-key is O(log n) and no entry is ever stale or boxed.
+ */
+public final class IndexedMinHeap {
+    private int[] heap; //ids in heap order
+    private int[] key;  //key[id], only valid while id is in the heap
+    private int[] pos;  //pos[id] = slot in heap, -1 if not in the heap
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        key = new int[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    //grow to hold ids 0..capacity-1, keeping the current content
+    public void ensureCapacity(int capacity) {
+        if (capacity <= pos.length) return;
+        int old = pos.length;
+        heap = Arrays.copyOf(heap, capacity);
+        key = Arrays.copyOf(key, capacity);
+        pos = Arrays.copyOf(pos, capacity);
+        Arrays.fill(pos, old, capacity, -1);
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+    public boolean contains(int id) { return pos[id] >= 0; }
+
+    //insert id with the given key, or lower its key if it is already queued
+    public void push(int id, int k) {
+        int i = pos[id];
+        if (i < 0) {
+            i = size++;
+            heap[i] = id;
+            pos[id] = i;
+            key[id] = k;
+            siftUp(i);
+        } else if (k < key[id]) {
+            key[id] = k;
+            siftUp(i);
+        }
+    }
+
+    public int minKey() { return key[heap[0]]; }
+
+    //remove and return the id with the smallest key
+    public int poll() {
+        int top = heap[0];
+        pos[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    //empty the heap in O(size), not O(capacity)
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        int k = key[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k) break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        int k = key[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[heap[child]]) child = right;
+            int c = heap[child];
+            if (k <= key[c]) break;
+            heap[i] = c;
+            pos[c] = i;
+            i = child;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
@@ -34,6 +34,13 @@ public class RobotQueue {
         return trip;
     }
     
+    // ดึงออเดอร์ที่เลือกไว้ (เช่นจาก BatchingPolicy) ออกจากคิว โดยไม่สนลำดับในคิว
+    public void take(List<Order> trip) {
+        for (Order o : trip) {
+            ready.remove(o);
+        }
+    }
+    
     /**
      * คืนค่า reference ของคิว
      * ใช้โดย UI เพื่อแสดงสถานะคิวของหุ่นยนต์ปัจจุบัน
@@ -44,6 +51,13 @@ public class RobotQueue {
         return ready;
     }
 
+    // สำเนาของคิว ให้ thread อื่น (เช่น UI) อ่านได้โดยไม่ชนกับ thread ที่กำลังแก้คิว
+    public RobotQueue copy() {
+        RobotQueue c = new RobotQueue();
+        c.ready.addAll(ready);
+        return c;
+    }
+
     // ล้างคิวทั้งหมด
     public void clear() {
         ready.clear();
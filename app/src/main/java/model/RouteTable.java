@@ -0,0 +1,101 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All-pairs shortest distances and next hops of a Graph.
+ * Built once per simulation start, then every route query is a table walk
+ * that costs O(path length) instead of a Dijkstra run.
+ */
+public class RouteTable {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Map<String, Integer> index = new HashMap<>(); //node name -> row/column
+    private final String[] names;
+    private final int n;
+    private final int[] dist; //dist[from * n + to]
+    private final int[] next; //next[from * n + to] = node after "from" on a shortest path, -1 if none
+
+    private RouteTable(String[] names) {
+        this.names = names;
+        this.n = names.length;
+        for (int i = 0; i < n; i++) {
+            index.put(names[i], i);
+        }
+        dist = new int[n * n];
+        next = new int[n * n];
+        Arrays.fill(dist, UNREACHABLE);
+        Arrays.fill(next, -1);
+    }
+
+    //wrap matrices that were maintained elsewhere (DynamicRouteTable), no copy
+    RouteTable(String[] names, int[] dist, int[] next) {
+        this.names = names;
+        this.n = names.length;
+        for (int i = 0; i < n; i++) {
+            index.put(names[i], i);
+        }
+        this.dist = dist;
+        this.next = next;
+    }
+
+    //run one Dijkstra per node; the graph is undirected, so the parent of v in the tree
+    //rooted at t is exactly the next hop from v towards t
+    public static RouteTable build(Graph graph) {
+        return build(graph.compact());
+    }
+
+    public static RouteTable build(CompactGraph graph) {
+        int n = graph.size();
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = graph.name(i);
+        }
+        RouteTable table = new RouteTable(names);
+        int[] d = new int[n];
+        int[] prev = new int[n];
+        for (int t = 0; t < n; t++) {
+            ShortestPaths.tree(graph, t, d, prev);
+            for (int v = 0; v < n; v++) {
+                table.dist[v * n + t] = d[v];
+                table.next[v * n + t] = v == t ? t : prev[v];
+            }
+        }
+        return table;
+    }
+
+    public boolean contains(String node) {
+        return index.containsKey(node);
+    }
+
+    //shortest distance between two nodes, UNREACHABLE if there is no path
+    public int distance(String from, String to) {
+        Integer a = index.get(from);
+        Integer b = index.get(to);
+        if (a == null || b == null) return from.equals(to) ? 0 : UNREACHABLE;
+        return dist[a * n + b];
+    }
+
+    //shortest path from -> ... -> to, empty if there is no path
+    public List<String> path(String from, String to) {
+        Integer a = index.get(from);
+        Integer b = index.get(to);
+        if (a == null || b == null) {
+            return from.equals(to) ? List.of(from) : Collections.emptyList();
+        }
+        if (dist[a * n + b] == UNREACHABLE) return Collections.emptyList();
+        List<String> path = new ArrayList<>();
+        int cur = a;
+        path.add(names[cur]);
+        while (cur != b) {
+            cur = next[cur * n + b];
+            path.add(names[cur]);
+        }
+        return path;
+    }
+}
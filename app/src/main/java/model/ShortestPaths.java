@@ -0,0 +1,147 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra over a CompactGraph with an indexed heap (decrease-key, no stale entries).
+ * The dist/prev arrays and the heap live in a per-thread workspace that is reused by
+ * every query on that thread; a query only resets the entries it touched, by bumping
+ * an epoch instead of clearing whole arrays.
+ */
+public final class ShortestPaths {
+    public static final int INF = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private ShortestPaths() {}
+
+    //scratch buffers of one thread
+    static final class Workspace {
+        int[] dist = new int[0];
+        int[] prev = new int[0];
+        int[] stamp = new int[0]; //dist/prev of v are valid only if stamp[v] == epoch
+        int epoch;
+        int expanded;
+        final IndexedMinHeap heap = new IndexedMinHeap(0);
+
+        void begin(int n) {
+            if (dist.length < n) {
+                dist = new int[n];
+                prev = new int[n];
+                stamp = new int[n];
+                epoch = 0;
+            }
+            heap.ensureCapacity(n);
+            heap.clear();
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+        }
+
+        int dist(int v) { return stamp[v] == epoch ? dist[v] : INF; }
+
+        void set(int v, int d, int p) {
+            stamp[v] = epoch;
+            dist[v] = d;
+            prev[v] = p;
+        }
+
+        //walk prev pointers back from target
+        int[] pathTo(int source, int target) {
+            if (dist(target) == INF) return new int[0];
+            int len = 1;
+            for (int v = target; v != source; v = prev[v]) len++;
+            int[] path = new int[len];
+            for (int v = target, i = len - 1; i >= 0; v = prev[v], i--) {
+                path[i] = v;
+            }
+            return path;
+        }
+    }
+
+    static Workspace workspace(int n) {
+        Workspace ws = WORKSPACE.get();
+        ws.begin(n);
+        return ws;
+    }
+
+    //point-to-point query, stops as soon as the target is settled; empty if there is no path
+    public static int[] path(CompactGraph g, int source, int target) {
+        Workspace ws = workspace(g.size());
+        IndexedMinHeap heap = ws.heap;
+        ws.set(source, 0, -1);
+        heap.push(source, 0);
+        int expanded = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            expanded++;
+            if (u == target) break;
+            int du = ws.dist[u];
+            for (int a = g.arcsStart(u); a < g.arcsEnd(u); a++) {
+                int v = g.target(a);
+                int nd = du + g.weight(a);
+                if (nd < ws.dist(v)) {
+                    ws.set(v, nd, u);
+                    heap.push(v, nd);
+                }
+            }
+        }
+        ws.expanded = expanded;
+        return ws.pathTo(source, target);
+    }
+
+    //A* with the grid-distance heuristic of the graph. The heuristic is consistent
+    //(it drops by at most w across an edge of weight w), so a settled node is final
+    public static int[] aStar(CompactGraph g, int source, int target) {
+        Workspace ws = workspace(g.size());
+        IndexedMinHeap heap = ws.heap;
+        ws.set(source, 0, -1);
+        heap.push(source, g.gridDistance(source, target));
+        int expanded = 0;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            expanded++;
+            if (u == target) break;
+            int du = ws.dist[u];
+            for (int a = g.arcsStart(u); a < g.arcsEnd(u); a++) {
+                int v = g.target(a);
+                int nd = du + g.weight(a);
+                if (nd < ws.dist(v)) {
+                    ws.set(v, nd, u);
+                    heap.push(v, nd + g.gridDistance(v, target));
+                }
+            }
+        }
+        ws.expanded = expanded;
+        return ws.pathTo(source, target);
+    }
+
+    //nodes settled by the last path/aStar query on this thread, for comparing the two
+    public static int lastExpanded() {
+        return WORKSPACE.get().expanded;
+    }
+
+    //full shortest-path tree of source, written into dist/prev (length >= g.size())
+    public static void tree(CompactGraph g, int source, int[] dist, int[] prev) {
+        int n = g.size();
+        Arrays.fill(dist, 0, n, INF);
+        Arrays.fill(prev, 0, n, -1);
+        IndexedMinHeap heap = workspace(n).heap;
+        dist[source] = 0;
+        heap.push(source, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int du = dist[u];
+            for (int a = g.arcsStart(u); a < g.arcsEnd(u); a++) {
+                int v = g.target(a);
+                int nd = du + g.weight(a);
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    prev[v] = u;
+                    heap.push(v, nd);
+                }
+            }
+        }
+    }
+}
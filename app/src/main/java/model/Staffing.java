@@ -0,0 +1,62 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Kitchen staff of a layout: how many chefs work each station (one station per Dish, by ordinal)
+ * and how many cross-trained chefs float between the stations, taking work from whichever
+ * station is furthest behind whenever they are idle.
+ */
+public record Staffing(int[] chefsPerStation, int crossTrained) {
+    public static final Staffing DEFAULT = uniform(1, 0); //one chef per dish, nobody floating
+
+    public Staffing {
+        if (chefsPerStation.length != Dish.values().length) {
+            throw new IllegalArgumentException("Need a chef count for each of the " + Dish.values().length + " stations");
+        }
+        for (int c : chefsPerStation) {
+            if (c < 0) throw new IllegalArgumentException("Negative chef count: " + c);
+        }
+        if (crossTrained < 0) throw new IllegalArgumentException("Negative cross-trained count: " + crossTrained);
+        chefsPerStation = chefsPerStation.clone();
+        if (Arrays.stream(chefsPerStation).anyMatch(c -> c == 0) && crossTrained == 0) {
+            throw new IllegalArgumentException("A station without chefs needs cross-trained staff");
+        }
+    }
+
+    //the same number of chefs at every station
+    public static Staffing uniform(int chefsPerStation, int crossTrained) {
+        int[] counts = new int[Dish.values().length];
+        Arrays.fill(counts, chefsPerStation);
+        return new Staffing(counts, crossTrained);
+    }
+
+    public int chefs(Dish station) {
+        return chefsPerStation[station.ordinal()];
+    }
+
+    public int total() {
+        return Arrays.stream(chefsPerStation).sum() + crossTrained;
+    }
+
+    @Override
+    public int[] chefsPerStation() {
+        return chefsPerStation.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Staffing s && crossTrained == s.crossTrained
+            && Arrays.equals(chefsPerStation, s.chefsPerStation);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(chefsPerStation) + crossTrained;
+    }
+
+    @Override
+    public String toString() {
+        return "Staffing" + Arrays.toString(chefsPerStation) + " + " + crossTrained + " cross-trained";
+    }
+}
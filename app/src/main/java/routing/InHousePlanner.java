@@ -0,0 +1,74 @@
+package routing;
+
+import java.util.List;
+
+import model.ContractionHierarchy;
+import model.Graph;
+import model.RouteTable;
+import model.ShortestPaths;
+
+/**
+ * RoutePlanner backed by the routing code in the model package.
+ */
+public abstract class InHousePlanner implements RoutePlanner {
+    private final String name;
+
+    protected InHousePlanner(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    //all-pairs route table: O(1) distance, O(path length) path
+    public static InHousePlanner table(RouteTable table) {
+        return new InHousePlanner("table") {
+            @Override
+            public List<String> path(String from, String to) { return table.path(from, to); }
+
+            @Override
+            public int distance(String from, String to) { return table.distance(from, to); }
+        };
+    }
+
+    //on-demand Dijkstra with the indexed heap
+    public static InHousePlanner dijkstra(Graph graph) {
+        return new InHousePlanner("dijkstra") {
+            @Override
+            public List<String> path(String from, String to) { return graph.dijkstra(from, to); }
+
+            @Override
+            public int distance(String from, String to) { return weight(graph, path(from, to)); }
+        };
+    }
+
+    //on-demand A* with the grid-distance heuristic
+    public static InHousePlanner aStar(Graph graph) {
+        return new InHousePlanner("astar") {
+            @Override
+            public List<String> path(String from, String to) { return graph.aStar(from, to); }
+
+            @Override
+            public int distance(String from, String to) { return weight(graph, path(from, to)); }
+        };
+    }
+
+    //contraction hierarchy, preprocessed here
+    public static InHousePlanner contractionHierarchy(Graph graph) {
+        ContractionHierarchy ch = ContractionHierarchy.build(graph);
+        return new InHousePlanner("ch") {
+            @Override
+            public List<String> path(String from, String to) { return ch.path(from, to); }
+
+            @Override
+            public int distance(String from, String to) {
+                int d = ch.distance(from, to);
+                return d == ShortestPaths.INF ? UNREACHABLE : d;
+            }
+        };
+    }
+
+    private static int weight(Graph graph, List<String> path) {
+        return path.isEmpty() ? UNREACHABLE : graph.pathWeight(path);
+    }
+}
@@ -0,0 +1,94 @@
+package routing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.interfaces.ShortestPathAlgorithm;
+import org.jgrapht.alg.shortestpath.BidirectionalDijkstraShortestPath;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyBidirectionalDijkstra;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyPrecomputation;
+import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.ConcurrencyUtil;
+
+import model.Graph;
+
+/**
+ * RoutePlanner backed by a JGraphT shortest-path algorithm on a copy of the sim graph.
+ */
+public class JGraphTPlanner implements RoutePlanner {
+    private final String name;
+    private final org.jgrapht.Graph<String, DefaultWeightedEdge> graph;
+    private final ShortestPathAlgorithm<String, DefaultWeightedEdge> algorithm;
+
+    private JGraphTPlanner(String name, org.jgrapht.Graph<String, DefaultWeightedEdge> graph,
+                           ShortestPathAlgorithm<String, DefaultWeightedEdge> algorithm) {
+        this.name = name;
+        this.graph = graph;
+        this.algorithm = algorithm;
+    }
+
+    public static JGraphTPlanner dijkstra(Graph source) {
+        var g = copy(source);
+        return new JGraphTPlanner("jgrapht-dijkstra", g, new DijkstraShortestPath<>(g));
+    }
+
+    public static JGraphTPlanner bidirectionalDijkstra(Graph source) {
+        var g = copy(source);
+        return new JGraphTPlanner("jgrapht-bidijkstra", g, new BidirectionalDijkstraShortestPath<>(g));
+    }
+
+    //preprocesses the hierarchy here, on a pool that is shut down once it is done
+    public static JGraphTPlanner contractionHierarchy(Graph source) {
+        var g = copy(source);
+        ThreadPoolExecutor pool = ConcurrencyUtil.createThreadPoolExecutor(Runtime.getRuntime().availableProcessors());
+        try {
+            var hierarchy = new ContractionHierarchyPrecomputation<>(g, pool).computeContractionHierarchy();
+            return new JGraphTPlanner("jgrapht-ch", g, new ContractionHierarchyBidirectionalDijkstra<>(hierarchy));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //simple undirected graph, keeping the cheapest of parallel edges and dropping self loops
+    private static org.jgrapht.Graph<String, DefaultWeightedEdge> copy(Graph source) {
+        SimpleWeightedGraph<String, DefaultWeightedEdge> g = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        for (String node : source.nodes()) {
+            g.addVertex(node);
+        }
+        for (Graph.Edge e : source.getAllEdges()) {
+            if (e.getSrc().equals(e.getDest())) continue;
+            DefaultWeightedEdge existing = g.getEdge(e.getSrc(), e.getDest());
+            if (existing == null) {
+                g.setEdgeWeight(g.addEdge(e.getSrc(), e.getDest()), e.getWeight());
+            } else if (e.getWeight() < g.getEdgeWeight(existing)) {
+                g.setEdgeWeight(existing, e.getWeight());
+            }
+        }
+        return g;
+    }
+
+    @Override
+    public String name() { return name; }
+
+    @Override
+    public List<String> path(String from, String to) {
+        if (!graph.containsVertex(from) || !graph.containsVertex(to)) {
+            return from.equals(to) ? List.of(from) : Collections.emptyList();
+        }
+        GraphPath<String, DefaultWeightedEdge> p = algorithm.getPath(from, to);
+        return p == null ? Collections.emptyList() : p.getVertexList();
+    }
+
+    @Override
+    public int distance(String from, String to) {
+        if (!graph.containsVertex(from) || !graph.containsVertex(to)) {
+            return from.equals(to) ? 0 : UNREACHABLE;
+        }
+        double d = algorithm.getPathWeight(from, to);
+        return Double.isInfinite(d) ? UNREACHABLE : (int) d;
+    }
+}
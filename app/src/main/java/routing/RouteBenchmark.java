@@ -0,0 +1,64 @@
+package routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Graph;
+
+/**
+ * Times every RoutePlanner on the same graph and the same random queries,
+ * so the fastest engine for a layout can be picked with -Dsim.routing.
+ */
+public final class RouteBenchmark {
+    public record Result(String planner, double buildMs, double queryUs, long checksum) {
+        @Override
+        public String toString() {
+            return String.format("%-20s build %9.3f ms   query %9.3f us   checksum %d", planner, buildMs, queryUs, checksum);
+        }
+    }
+
+    private RouteBenchmark() {}
+
+    public static List<Result> run(Graph graph, int queries, long seed) {
+        List<String> nodes = new ArrayList<>(graph.nodes());
+        List<Result> results = new ArrayList<>();
+        if (nodes.isEmpty()) return results;
+        Random rnd = new Random(seed);
+        String[][] pairs = new String[queries][2];
+        for (String[] pair : pairs) {
+            pair[0] = nodes.get(rnd.nextInt(nodes.size()));
+            pair[1] = nodes.get(rnd.nextInt(nodes.size()));
+        }
+        for (String name : RoutePlanners.NAMES) {
+            long t0 = System.nanoTime();
+            RoutePlanner planner = RoutePlanners.create(name, graph, null);
+            long t1 = System.nanoTime();
+            long checksum = 0; //sum of distances, must be equal for every planner
+            for (String[] pair : pairs) {
+                checksum += planner.distance(pair[0], pair[1]);
+                planner.path(pair[0], pair[1]);
+            }
+            long t2 = System.nanoTime();
+            results.add(new Result(name, (t1 - t0) / 1e6, (t2 - t1) / 1e3 / Math.max(1, queries), checksum));
+        }
+        return results;
+    }
+
+    //benchmark on a generated size x size grid of junction cells: RouteBenchmark [size] [queries]
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Graph g = new Graph();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                g.setPosition(c + "," + r, c, r);
+                if (c + 1 < size) g.addEdge(c + "," + r, (c + 1) + "," + r, 1);
+                if (r + 1 < size) g.addEdge(c + "," + r, c + "," + (r + 1), 1);
+            }
+        }
+        for (Result r : run(g, queries, 1)) {
+            System.out.println(r);
+        }
+    }
+}
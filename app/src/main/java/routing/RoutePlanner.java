@@ -0,0 +1,21 @@
+package routing;
+
+import java.util.List;
+
+/**
+ * Answers shortest-path queries on the sim graph for ServeRobot and SimulationEngine.
+ * Implementations are chosen by name through RoutePlanners, so engines can be swapped
+ * and benchmarked against each other without touching the robot.
+ */
+public interface RoutePlanner {
+    int UNREACHABLE = Integer.MAX_VALUE;
+
+    //configuration name, e.g. "table" or "jgrapht-ch"
+    String name();
+
+    //shortest path from -> ... -> to as node names, empty if there is no path
+    List<String> path(String from, String to);
+
+    //length of the shortest path, UNREACHABLE if there is none
+    int distance(String from, String to);
+}
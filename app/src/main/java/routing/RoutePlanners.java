@@ -0,0 +1,55 @@
+package routing;
+
+import java.util.List;
+
+import model.DynamicRouteTable;
+import model.Graph;
+import model.RouteTable;
+
+/**
+ * Creates a RoutePlanner by configuration name.
+ *
+ *   table              all-pairs table (in-house, kept up to date while editing)
+ *   dijkstra           in-house indexed-heap Dijkstra
+ *   astar              in-house A* with the grid heuristic
+ *   ch                 in-house contraction hierarchy
+ *   jgrapht-dijkstra   JGraphT DijkstraShortestPath
+ *   jgrapht-bidijkstra JGraphT BidirectionalDijkstraShortestPath
+ *   jgrapht-ch         JGraphT ContractionHierarchyBidirectionalDijkstra
+ */
+public final class RoutePlanners {
+    public static final String DEFAULT = "table";
+    public static final List<String> NAMES = List.of(
+        "table", "dijkstra", "astar", "ch", "jgrapht-dijkstra", "jgrapht-bidijkstra", "jgrapht-ch");
+
+    private RoutePlanners() {}
+
+    //-Dsim.routing=<name>, defaulting to the route table
+    public static String configuredName() {
+        return check(System.getProperty("sim.routing", DEFAULT).trim().toLowerCase());
+    }
+
+    //the name itself if a planner goes by it, so a typo fails here and not as a silent fallback
+    public static String check(String name) {
+        if (!NAMES.contains(name) && !name.equals("a*")) {
+            throw new IllegalArgumentException("Unknown route planner " + name + ", expected one of " + NAMES);
+        }
+        return name;
+    }
+
+    /**
+     * @param liveTable table maintained by the editor, may be null (then it is built from the graph)
+     */
+    public static RoutePlanner create(String name, Graph graph, DynamicRouteTable liveTable) {
+        return switch (name) {
+            case "dijkstra" -> InHousePlanner.dijkstra(graph);
+            case "astar", "a*" -> InHousePlanner.aStar(graph);
+            case "ch" -> InHousePlanner.contractionHierarchy(graph);
+            case "jgrapht-dijkstra" -> JGraphTPlanner.dijkstra(graph);
+            case "jgrapht-bidijkstra" -> JGraphTPlanner.bidirectionalDijkstra(graph);
+            case "jgrapht-ch" -> JGraphTPlanner.contractionHierarchy(graph);
+            case "table" -> InHousePlanner.table(liveTable != null ? liveTable.snapshot() : RouteTable.build(graph));
+            default -> throw new IllegalArgumentException("Unknown route planner " + name + ", expected one of " + NAMES);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package sim;
+
+import java.util.List;
+
+import model.GraphModel;
+
+/**
+ * Creates a BatchingPolicy by configuration name.
+ *
+ *   spatial   tables close together per trip, orders older than the max wait first (default)
+ *   fifo      the first orders that came off the stove
+ */
+public final class BatchingPolicies {
+    public static final String DEFAULT = "spatial";
+    public static final List<String> NAMES = List.of("spatial", "fifo");
+    public static final long DEFAULT_MAX_WAIT_MS = 60_000;
+
+    private BatchingPolicies() {}
+
+    //-Dsim.batching=<name>, defaulting to spatial batching
+    public static String configuredName() {
+        return System.getProperty("sim.batching", DEFAULT).trim().toLowerCase();
+    }
+
+    //-Dsim.tripCapacity=<orders per trip>
+    public static int configuredCapacity() {
+        return Math.max(1, Integer.getInteger("sim.tripCapacity", SimulationCore.TRIP_CAPACITY));
+    }
+
+    //-Dsim.maxWaitMs=<ms>, how long an order may wait before it is taken whatever the distance
+    public static long configuredMaxWaitMs() {
+        return Math.max(0, Long.getLong("sim.maxWaitMs", DEFAULT_MAX_WAIT_MS));
+    }
+
+    public static BatchingPolicy create(String name, ServeRobot planner, GraphModel graphModel, long maxWaitMs) {
+        return switch (name) {
+            case "fifo" -> BatchingPolicy.fifo();
+            default -> new SpatialBatching(planner::distance,
+                n -> graphModel.tableName(n, String.valueOf(n)), planner.kitchenNode(), maxWaitMs);
+        };
+    }
+}
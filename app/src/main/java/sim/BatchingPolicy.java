@@ -0,0 +1,21 @@
+package sim;
+
+import java.util.List;
+
+import model.Order;
+
+/**
+ * Decides which of the ready orders a robot takes on its next trip.
+ */
+public interface BatchingPolicy {
+    /**
+     * @param ready the orders waiting in the RobotQueue, oldest first
+     * @return at most capacity of them, at least one if any are ready
+     */
+    List<Order> pick(List<Order> ready, int capacity, long nowMs);
+
+    //the old behaviour: the first orders that came off the stove
+    static BatchingPolicy fifo() {
+        return (ready, capacity, nowMs) -> List.copyOf(ready.subList(0, Math.min(capacity, ready.size())));
+    }
+}
@@ -0,0 +1,21 @@
+package sim;
+
+import java.util.List;
+
+/**
+ * Picks the robot of the fleet that gets a planned trip. Only idle robots take trips and an
+ * idle robot is always parked at the kitchen, so any of them would deliver the trip at the
+ * same time: dispatch means "any idle robot". The one idle the longest gets it, which spreads
+ * the trips over the fleet; on a tie the lowest id.
+ */
+public class Dispatcher {
+    //idle robot that has been waiting the longest, null if every robot is out
+    public Robot choose(List<Robot> fleet) {
+        Robot best = null;
+        for (Robot r : fleet) {
+            if (r.isBusy()) continue;
+            if (best == null || r.freeAtMs() < best.freeAtMs()) best = r;
+        }
+        return best;
+    }
+}
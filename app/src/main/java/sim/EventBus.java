@@ -0,0 +1,85 @@
+package sim;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import log.MpscRing;
+
+/**
+ * Typed events from any thread to subscribers on one consumer thread (the FX thread for the UI).
+ *
+ * publish() puts the event in an MpscRing and returns; nothing runs on the publishing thread.
+ * The consumer calls drain() once per frame and every event is handed to the subscribers of
+ * its type in publish order. When the ring is full the publisher backs off until the consumer
+ * has caught up, so a burst of events slows the engine down instead of getting lost; the
+ * consumer itself drains to make room instead of waiting for itself.
+ */
+public class EventBus<E> {
+    private static final int DRAIN_LIMIT = 4096; //events per drain, so one frame cannot stall on a burst
+    private static final int CLOCK_EVERY = 64; //events between looks at the clock while draining
+
+    private final MpscRing<E> ring;
+    private final Map<Class<?>, List<Consumer<?>>> subscribers = new ConcurrentHashMap<>();
+    private final BooleanSupplier onConsumer; //true on the thread that drains
+
+    public EventBus(int capacity, BooleanSupplier onConsumer) {
+        this.ring = new MpscRing<>(capacity);
+        this.onConsumer = onConsumer;
+    }
+
+    //handler gets every event that is an instance of type
+    public <T extends E> void subscribe(Class<T> type, Consumer<? super T> handler) {
+        subscribers.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    //any thread; waits while the ring is full, gives up if the thread is interrupted
+    public boolean publish(E event) {
+        while (!ring.offer(event)) {
+            if (onConsumer.getAsBoolean()) {
+                drain();
+                continue;
+            }
+            if (Thread.currentThread().isInterrupted()) return false;
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+        return true;
+    }
+
+    //consumer thread only; hand the waiting events to their subscribers, returns how many
+    public int drain() {
+        return ring.drain(this::dispatch, DRAIN_LIMIT);
+    }
+
+    //same, but stop once System.nanoTime() passes deadlineNanos; the rest waits for the next drain
+    public int drain(long deadlineNanos) {
+        int total = 0;
+        while (total < DRAIN_LIMIT) {
+            int n = ring.drain(this::dispatch, Math.min(CLOCK_EVERY, DRAIN_LIMIT - total));
+            total += n;
+            if (n < CLOCK_EVERY || System.nanoTime() - deadlineNanos >= 0) break;
+        }
+        return total;
+    }
+
+    //consumer thread only; throw away whatever is still waiting
+    public void clear() {
+        while (ring.poll() != null) {
+            //drop
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(E event) {
+        for (Map.Entry<Class<?>, List<Consumer<?>>> e : subscribers.entrySet()) {
+            if (!e.getKey().isInstance(event)) continue;
+            for (Consumer<?> handler : e.getValue()) {
+                ((Consumer<E>) handler).accept(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package sim;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+import model.Dish;
+
+/**
+ * Scans the segments an OrderJournal wrote. Each segment is mapped read-only and the Cursor
+ * handed to the callback reads its fields straight out of the mapping, so going over millions
+ * of orders copies and allocates nothing per record. The cursor only points at the current
+ * record during the callback; copy out what has to be kept.
+ */
+public class JournalReader {
+    //the record under the scan
+    public static final class Cursor {
+        private MappedByteBuffer map;
+        private int at;
+
+        public long orderId() { return map.getLong(at + OrderJournal.ID); }
+        public int table() { return map.getInt(at + OrderJournal.TABLE); }
+        public Dish dish() { return Dish.values()[map.getShort(at + OrderJournal.DISH)]; }
+        public int robot() { return map.getShort(at + OrderJournal.ROBOT); }
+        public int chef() { return map.getInt(at + OrderJournal.CHEF); }
+        public long placedMs() { return map.getLong(at + OrderJournal.PLACED); }
+        public long cookStartMs() { return map.getLong(at + OrderJournal.COOK_START); }
+        public long cookedMs() { return map.getLong(at + OrderJournal.COOKED); }
+        public long dispatchedMs() { return map.getLong(at + OrderJournal.DISPATCHED); }
+        public long deliveredMs() { return map.getLong(at + OrderJournal.DELIVERED); }
+
+        //false for an order the service was stopped before delivering
+        public boolean delivered() { return deliveredMs() >= 0; }
+
+        //how long the guest waited for the food, -1 if it never came
+        public long latencyMs() { return delivered() ? deliveredMs() - placedMs() : -1; }
+    }
+
+    private final Path dir;
+
+    public JournalReader(Path dir) {
+        this.dir = dir;
+    }
+
+    //every record of every segment in write order, returns how many there were
+    public long scan(Consumer<Cursor> visit) throws IOException {
+        Cursor cursor = new Cursor();
+        long total = 0;
+        for (int segment = 0; ; segment++) {
+            Path file = OrderJournal.segmentFile(dir, segment);
+            if (!Files.exists(file)) return total;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                if (map.getInt(0) != OrderJournal.MAGIC) throw new IOException("Not a journal segment: " + file);
+                if (map.getInt(4) != OrderJournal.VERSION) throw new IOException("Unsupported journal version: " + file);
+                long count = map.getLong(OrderJournal.COUNT_OFFSET);
+                if (count == 0) return total; //a journal only rolls over to write a record: this is an emptied leftover
+                cursor.map = map;
+                for (long i = 0; i < count; i++) {
+                    cursor.at = OrderJournal.HEADER_BYTES + (int) i * OrderJournal.RECORD_BYTES;
+                    visit.accept(cursor);
+                }
+                total += count;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.ChefQueue;
+import model.Dish;
+import model.Order;
+import model.Staffing;
+
+/**
+ * The stations (one ChefQueue per Dish) and the chefs working them.
+ *
+ * Station chefs only cook their own dish. Whenever a chef is free it takes the next waiting
+ * order of its station; cross-trained chefs have no station and take the next order of the
+ * station with the most cooking time waiting, so a slow dish no longer pins the whole service.
+ */
+public class Kitchen {
+    //one member of the staff; station is null for a cross-trained chef
+    public static final class Chef {
+        private final int id;
+        private final Dish station;
+        private Order cooking;
+
+        Chef(int id, Dish station) {
+            this.id = id;
+            this.station = station;
+        }
+
+        public int id() { return id; }
+        public Dish station() { return station; }
+        public boolean isCrossTrained() { return station == null; }
+        public boolean isBusy() { return cooking != null; }
+        public Order cooking() { return cooking; }
+    }
+
+    //an order a chef just put on the stove
+    public record Started(Chef chef, Order order, long finishMs) {}
+
+    private final ChefQueue[] stations = new ChefQueue[Dish.values().length];
+    private final List<Chef> chefs = new ArrayList<>();
+
+    public Kitchen(Staffing staffing) {
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new ChefQueue();
+        }
+        //station chefs first so they get the first pick of their own station's work
+        for (Dish d : Dish.values()) {
+            for (int i = 0; i < staffing.chefs(d); i++) {
+                chefs.add(new Chef(chefs.size(), d));
+            }
+        }
+        for (int i = 0; i < staffing.crossTrained(); i++) {
+            chefs.add(new Chef(chefs.size(), null));
+        }
+    }
+
+    public void enqueue(Order o) {
+        stations[o.dish().ordinal()].enqueue(o);
+    }
+
+    //every idle chef takes work if there is any it can do
+    public List<Started> assign(long nowMs) {
+        List<Started> started = new ArrayList<>();
+        for (Chef chef : chefs) {
+            if (chef.isBusy()) continue;
+            ChefQueue from = chef.isCrossTrained() ? furthestBehind() : stations[chef.station.ordinal()];
+            Order o = from != null ? from.takeWaiting() : null;
+            if (o == null) continue;
+            long finish = nowMs + o.dish().cookSec() * 1000L;
+            stations[o.dish().ordinal()].startCooking(o, finish);
+            chef.cooking = o;
+            started.add(new Started(chef, o, finish));
+        }
+        return started;
+    }
+
+    //chef is done, returns the cooked order
+    public Order finish(int chefId) {
+        Chef chef = chefs.get(chefId);
+        Order o = chef.cooking;
+        if (o == null) throw new IllegalStateException("Chef " + chefId + " is not cooking");
+        stations[o.dish().ordinal()].finishCooking(o);
+        chef.cooking = null;
+        return o;
+    }
+
+    //station with the most cooking time waiting, null if nothing waits anywhere
+    private ChefQueue furthestBehind() {
+        ChefQueue best = null;
+        long most = 0;
+        for (ChefQueue q : stations) {
+            long work = q.waitingWorkMs();
+            if (work > most) {
+                best = q;
+                most = work;
+            }
+        }
+        return best;
+    }
+
+    public ChefQueue[] stations() { return stations; }
+    public List<Chef> chefs() { return Collections.unmodifiableList(chefs); }
+
+    public int busyChefs() {
+        int busy = 0;
+        for (Chef c : chefs) {
+            if (c.isBusy()) busy++;
+        }
+        return busy;
+    }
+}
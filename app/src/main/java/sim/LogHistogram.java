@@ -0,0 +1,76 @@
+package sim;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative longs (latencies in ms) in log-linear buckets, the way HDR
+ * histograms do it: values below 32 get a bucket each, above that every power of two is split
+ * into 16 equal buckets, so any value is known to within about 6% with under a thousand
+ * buckets for the whole long range. Recording is a few bit operations and an atomic
+ * increment, safe from any number of threads without a lock.
+ */
+public class LogHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;     //exact values below this
+    private static final int HALF = SUB >> 1;          //buckets per power of two above it
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * HALF + SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    public void record(long value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+        min.accumulateAndGet(value, Math::min);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB) return (int) value;
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift); //value >>> shift is in [HALF, SUB)
+    }
+
+    //largest value that lands in the bucket
+    static long highest(int bucket) {
+        if (bucket < SUB) return bucket;
+        int shift = bucket / HALF - 1;
+        long top = bucket - shift * HALF;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public long count() { return count.get(); }
+    public long max() { return count() == 0 ? 0 : max.get(); }
+    public long min() { return count() == 0 ? 0 : min.get(); }
+
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    //value at or below which the given share of the recorded values lie, e.g. 0.99
+    public long percentile(double p) {
+        if (p < 0 || p > 1) throw new IllegalArgumentException("Percentile out of 0..1: " + p);
+        long n = count();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) return Math.min(highest(b), max());
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%d p95=%d p99=%d max=%d", count(), percentile(0.50),
+            percentile(0.95), percentile(0.99), max());
+    }
+}
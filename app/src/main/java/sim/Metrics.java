@@ -0,0 +1,64 @@
+package sim;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters, gauges and histograms. Looking a metric up by name is a map access, so hot
+ * paths look theirs up once and keep the reference; updating one never takes a lock and may
+ * happen on any thread while another one reads.
+ */
+public class Metrics {
+    //only goes up
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        public void increment() { adder.increment(); }
+        public void add(long n) { adder.add(n); }
+        public long get() { return adder.sum(); }
+
+        @Override
+        public String toString() { return String.valueOf(get()); }
+    }
+
+    //the current level of something, and the highest it has been
+    public static final class Gauge {
+        private final AtomicLong value = new AtomicLong();
+        private final AtomicLong peak = new AtomicLong();
+
+        public void set(long v) {
+            value.set(v);
+            peak.accumulateAndGet(v, Math::max);
+        }
+
+        public long get() { return value.get(); }
+        public long peak() { return peak.get(); }
+
+        @Override
+        public String toString() { return get() + " (peak " + peak() + ")"; }
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LogHistogram> histograms = new ConcurrentHashMap<>();
+
+    public Counter counter(String name) { return counters.computeIfAbsent(name, k -> new Counter()); }
+    public Gauge gauge(String name) { return gauges.computeIfAbsent(name, k -> new Gauge()); }
+    public LogHistogram histogram(String name) { return histograms.computeIfAbsent(name, k -> new LogHistogram()); }
+
+    public Map<String, Counter> counters() { return new TreeMap<>(counters); }
+    public Map<String, Gauge> gauges() { return new TreeMap<>(gauges); }
+    public Map<String, LogHistogram> histograms() { return new TreeMap<>(histograms); }
+
+    //one line per metric, sorted by name
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        counters().forEach((name, c) -> sb.append(name).append(' ').append(c).append('\n'));
+        gauges().forEach((name, g) -> sb.append(name).append(' ').append(g).append('\n'));
+        histograms().forEach((name, h) -> sb.append(name).append(' ').append(h).append('\n'));
+        return sb.toString();
+    }
+}
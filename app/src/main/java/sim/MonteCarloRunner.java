@@ -0,0 +1,104 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import model.GraphModel;
+import model.Order;
+import routing.RoutePlanner;
+
+/**
+ * Runs many independent, seeded services of one layout in parallel and summarizes
+ * makespan and per-order latency (order placed -> food at the table).
+ *
+ * Every replication is its own SimulationCore with its own Random, so the result only
+ * depends on the layout, the replication count and the base seed, never on how the
+ * work was spread over the threads. Planners and route caches are made once per worker
+ * thread. The runner works on its own copy of the layout, taken when it is created (on the
+ * thread that edits it), so the layout can go on being edited while a batch runs.
+ */
+public class MonteCarloRunner {
+    private final GraphModel layout;
+    private final ThreadLocal<RoutePlanner> planners;
+    private final ThreadLocal<RouteCache> caches = ThreadLocal.withInitial(RouteCache::new);
+    private final int robots;
+    private final int parallelism;
+
+    //planners creates one RoutePlanner per worker thread
+    public MonteCarloRunner(GraphModel layout, Supplier<RoutePlanner> planners, int robots) {
+        this(layout, planners, robots, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloRunner(GraphModel layout, Supplier<RoutePlanner> planners, int robots, int parallelism) {
+        this.layout = layout.copy();
+        this.planners = ThreadLocal.withInitial(planners);
+        this.robots = robots;
+        this.parallelism = parallelism;
+    }
+
+    //outcome of one replication
+    public record Replication(long seed, long makespanMs, long[] latenciesMs) {}
+
+    //aggregate over all replications
+    public record Summary(int replications, Stats makespanMs, Stats latencyMs) {
+        @Override
+        public String toString() {
+            return "Replications: " + replications
+                + "\nMakespan (s): " + makespanMs.inSeconds()
+                + "\nOrder latency (s): " + latencyMs.inSeconds();
+        }
+    }
+
+    public Summary run(int replications, long seed) {
+        //draw every replication's seed up front so results do not depend on scheduling
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] replicationSeeds = new long[replications];
+        for (int i = 0; i < replications; i++) {
+            replicationSeeds[i] = seeds.nextLong();
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Replication> runs = pool.submit(() -> IntStream.range(0, replications)
+                .parallel()
+                .mapToObj(i -> runOne(replicationSeeds[i]))
+                .toList()).get();
+            return summarize(runs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch run failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //one whole service on the calling thread
+    public Replication runOne(long seed) {
+        SimulationCore core = new SimulationCore(layout, planners.get(), caches.get(), new Random(seed), robots);
+        core.setLogging(false);
+        List<Long> latencies = new ArrayList<>();
+        core.addListener(new SimulationCore.Listener() {
+            @Override
+            public void onOrderDelivered(Order order) {
+                latencies.add(core.now() - order.placedAtMs());
+            }
+        });
+        core.scheduleTableOrders();
+        long makespan = core.run();
+        return new Replication(seed, makespan, latencies.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    static Summary summarize(List<Replication> runs) {
+        long[] makespans = runs.stream().mapToLong(Replication::makespanMs).toArray();
+        long[] latencies = runs.stream().flatMapToLong(r -> Arrays.stream(r.latenciesMs())).toArray();
+        return new Summary(runs.size(), Stats.of(makespans), Stats.of(latencies));
+    }
+}
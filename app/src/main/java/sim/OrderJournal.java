@@ -0,0 +1,218 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Order;
+
+/**
+ * Append-only trace of every order's life: one fixed-width record per delivered order with when
+ * it was placed, put on the stove, cooked, sent out and handed over, by which chef and robot.
+ * Orders still under way when the journal is closed (a service stopped or reset half-way) are
+ * written on close, with -1 for every step that did not happen.
+ *
+ * Records go straight into memory-mapped segment files (journal-000000.seg, ...) in a
+ * directory; a full segment is forced to disk and the next one started. Each segment starts
+ * with a header holding the number of records written so far, so a JournalReader sees every
+ * complete record even of a run that is still going or was killed. A new journal first deletes
+ * the segments an earlier one left in the directory, so a reader only ever sees one run.
+ *
+ * A closed segment stays mapped until its buffer is garbage collected, and Windows refuses to
+ * delete or truncate a mapped file. A leftover that cannot be deleted is emptied instead (its
+ * record count set to 0, which ends a scan) and overwritten in place when the new run gets that
+ * far, so attaching again to the same directory in one JVM works there too.
+ *
+ *   header   magic int, version int, record count long                      (16 bytes)
+ *   record   order id long, table int, dish short, robot short,
+ *            placed, cook start, cooked, dispatched, delivered long,
+ *            chef int, spare int                                            (64 bytes)
+ *
+ * Order ids count the orders of the service from 0 in the order they were placed.
+ */
+public class OrderJournal implements SimulationCore.Listener, Closeable {
+    static final int MAGIC = 0x4F4A524E; //"OJRN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int COUNT_OFFSET = 8;
+    static final int RECORD_BYTES = 64;
+    public static final int DEFAULT_SEGMENT_RECORDS = 1 << 16; //4 MiB per segment
+
+    //field offsets within a record
+    static final int ID = 0, TABLE = 8, DISH = 12, ROBOT = 14, PLACED = 16, COOK_START = 24,
+        COOKED = 32, DISPATCHED = 40, DELIVERED = 48, CHEF = 56;
+
+    //what is known of an order until it is delivered
+    private static final class Trace {
+        final long id;
+        long cookStartMs = -1;
+        long cookedMs = -1;
+        long dispatchedMs = -1;
+        int chef = -1;
+        int robot = -1;
+
+        Trace(long id) { this.id = id; }
+    }
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final SimulationCore core;
+    private final Map<Order, Trace> open = new IdentityHashMap<>(); //Order is a record, equal orders are still two orders
+    private long nextId;
+    private int segment = -1;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int count; //records in the current segment
+    private long written;
+
+    //trace every order of core, which has not run yet, into dir
+    public static OrderJournal attach(Path dir, SimulationCore core) throws IOException {
+        return attach(dir, core, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    public static OrderJournal attach(Path dir, SimulationCore core, int segmentRecords) throws IOException {
+        OrderJournal journal = new OrderJournal(dir, core, segmentRecords);
+        core.addListener(journal);
+        return journal;
+    }
+
+    private OrderJournal(Path dir, SimulationCore core, int segmentRecords) throws IOException {
+        if (segmentRecords < 1) throw new IllegalArgumentException("Segments need room for a record: " + segmentRecords);
+        this.dir = Files.createDirectories(dir);
+        deleteSegments(this.dir);
+        this.segmentRecords = segmentRecords;
+        this.core = core;
+        roll();
+    }
+
+    //segments of an earlier run, a shorter new one would otherwise be read together with its tail
+    private static void deleteSegments(Path dir) throws IOException {
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(dir, "journal-*.seg")) {
+            for (Path file : old) {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    emptySegment(file); //still mapped somewhere (Windows), writing to it is allowed
+                }
+            }
+        }
+    }
+
+    //sets the record count of a segment to 0, a reader stops there
+    static void emptySegment(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(Long.BYTES), COUNT_OFFSET);
+        }
+    }
+
+    static Path segmentFile(Path dir, int segment) {
+        return dir.resolve(String.format("journal-%06d.seg", segment));
+    }
+
+    public long written() { return written; }
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        open.put(order, new Trace(nextId++));
+    }
+
+    @Override
+    public void onCookStarted(Order order, int chef) {
+        Trace t = open.get(order);
+        if (t == null) return;
+        t.cookStartMs = core.now();
+        t.chef = chef;
+    }
+
+    @Override
+    public void onCooked(Order order) {
+        Trace t = open.get(order);
+        if (t != null) t.cookedMs = core.now();
+    }
+
+    @Override
+    public void onDispatch(TripPlan trip) {
+        for (Order o : trip.orders()) {
+            Trace t = open.get(o);
+            if (t == null) continue;
+            t.dispatchedMs = core.now();
+            t.robot = trip.robot();
+        }
+    }
+
+    @Override
+    public void onOrderDelivered(Order order) {
+        Trace t = open.remove(order);
+        if (t != null) write(order, t, core.now());
+    }
+
+    private void write(Order order, Trace t, long deliveredMs) {
+        if (count == segmentRecords) roll();
+        int at = HEADER_BYTES + count * RECORD_BYTES;
+        map.putLong(at + ID, t.id);
+        map.putInt(at + TABLE, order.tableNumber());
+        map.putShort(at + DISH, (short) order.dish().ordinal());
+        map.putShort(at + ROBOT, (short) t.robot);
+        map.putLong(at + PLACED, order.placedAtMs());
+        map.putLong(at + COOK_START, t.cookStartMs);
+        map.putLong(at + COOKED, t.cookedMs);
+        map.putLong(at + DISPATCHED, t.dispatchedMs);
+        map.putLong(at + DELIVERED, deliveredMs);
+        map.putInt(at + CHEF, t.chef);
+        map.putInt(at + CHEF + 4, 0);
+        count++;
+        written++;
+        map.putLong(COUNT_OFFSET, count); //after the record, so a reader never counts a half-written one
+    }
+
+    //finish the current segment and map the next one
+    private void roll() {
+        try {
+            closeSegment();
+            segment++;
+            //no truncating: an emptied leftover may still be mapped, its old records lie past the count
+            channel = FileChannel.open(segmentFile(dir, segment), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) segmentRecords * RECORD_BYTES);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putLong(COUNT_OFFSET, 0);
+            count = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) return;
+        map.force();
+        channel.close();
+        channel = null;
+        map = null;
+    }
+
+    //writes the orders that never reached their table, in the order they were placed
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        List<Map.Entry<Order, Trace>> undelivered = new ArrayList<>(open.entrySet());
+        undelivered.sort(Comparator.comparingLong(e -> e.getValue().id));
+        for (Map.Entry<Order, Trace> e : undelivered) {
+            write(e.getKey(), e.getValue(), -1);
+        }
+        open.clear();
+        closeSegment();
+    }
+}
@@ -0,0 +1,128 @@
+package sim;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import model.ChefQueue;
+import model.Dish;
+import model.Order;
+
+/**
+ * Measures the order pipeline of one service into a Metrics registry, as a core listener:
+ *
+ *   queue.waitMs         placed until a chef starts on it (the station queue)
+ *   cook.waitMs          off the stove until a robot takes it (the ready queue)
+ *   delivery.latencyMs   placed until it is at the table, also per dish and per table
+ *                        (latency.dish.<dish>, latency.table.<number>)
+ *   kitchen.waiting, ready.queue, robots.busy    gauges, with their peaks
+ *   robots.busyMs        robot time spent on trips, for the utilization
+ *
+ * The listener calls only update metrics looked up up front (per table on its first delivery).
+ */
+public class PipelineMetrics implements SimulationCore.Listener {
+    private final SimulationCore core;
+    private final Metrics metrics;
+    private final Map<Order, Long> cooked = new IdentityHashMap<>(); //off the stove, not yet on a robot
+    private final LogHistogram queueWait;
+    private final LogHistogram cookWait;
+    private final LogHistogram latency;
+    private final LogHistogram[] byDish = new LogHistogram[Dish.values().length];
+    private final Map<Integer, LogHistogram> byTable = new HashMap<>();
+    private final Metrics.Counter placed;
+    private final Metrics.Counter delivered;
+    private final Metrics.Counter trips;
+    private final Metrics.Counter robotBusyMs;
+    private final Metrics.Gauge kitchenWaiting;
+    private final Metrics.Gauge readyQueue;
+    private final Metrics.Gauge robotsBusy;
+
+    //measure core, which has not run yet, into metrics
+    public static PipelineMetrics attach(SimulationCore core, Metrics metrics) {
+        PipelineMetrics pipeline = new PipelineMetrics(core, metrics);
+        core.addListener(pipeline);
+        return pipeline;
+    }
+
+    private PipelineMetrics(SimulationCore core, Metrics metrics) {
+        this.core = core;
+        this.metrics = metrics;
+        queueWait = metrics.histogram("queue.waitMs");
+        cookWait = metrics.histogram("cook.waitMs");
+        latency = metrics.histogram("delivery.latencyMs");
+        for (Dish d : Dish.values()) {
+            byDish[d.ordinal()] = metrics.histogram("latency.dish." + d.name());
+        }
+        placed = metrics.counter("orders.placed");
+        delivered = metrics.counter("orders.delivered");
+        trips = metrics.counter("robots.trips");
+        robotBusyMs = metrics.counter("robots.busyMs");
+        kitchenWaiting = metrics.gauge("kitchen.waiting");
+        readyQueue = metrics.gauge("ready.queue");
+        robotsBusy = metrics.gauge("robots.busy");
+    }
+
+    public Metrics metrics() { return metrics; }
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        placed.increment();
+        kitchenWaiting.set(waitingInKitchen());
+    }
+
+    @Override
+    public void onCookStarted(Order order, int chef) {
+        queueWait.record(core.now() - order.placedAtMs());
+        kitchenWaiting.set(waitingInKitchen());
+    }
+
+    @Override
+    public void onCooked(Order order) {
+        cooked.put(order, core.now());
+        readyQueue.set(core.robotQueue().getQueue().size());
+    }
+
+    @Override
+    public void onDispatch(TripPlan trip) {
+        for (Order o : trip.orders()) {
+            Long at = cooked.remove(o);
+            if (at != null) cookWait.record(core.now() - at);
+        }
+        trips.increment();
+        robotBusyMs.add(trip.freeAtMs() - core.now());
+        readyQueue.set(core.robotQueue().getQueue().size());
+        robotsBusy.set(core.busyRobots());
+    }
+
+    @Override
+    public void onOrderDelivered(Order order) {
+        long ms = core.now() - order.placedAtMs();
+        delivered.increment();
+        latency.record(ms);
+        byDish[order.dish().ordinal()].record(ms);
+        byTable.computeIfAbsent(order.tableNumber(), n -> metrics.histogram("latency.table." + n)).record(ms);
+    }
+
+    @Override
+    public void onRobotReturned(int robot) {
+        robotsBusy.set(core.busyRobots());
+    }
+
+    //share of the fleet's time over the service spent on trips, 0..1
+    public double robotUtilization() {
+        long span = core.now() * core.fleet().size();
+        return span == 0 ? 0 : Math.min(1.0, (double) robotBusyMs.get() / span);
+    }
+
+    private int waitingInKitchen() {
+        int n = 0;
+        for (ChefQueue q : core.chefQueues()) {
+            n += q.getWaitingReadonly().size();
+        }
+        return n;
+    }
+
+    public String report() {
+        return metrics.report() + String.format("robots.utilization %.1f%%%n", robotUtilization() * 100);
+    }
+}
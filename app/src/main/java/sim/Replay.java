@@ -0,0 +1,62 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.GraphModel;
+import routing.RoutePlanner;
+
+/**
+ * Runs a recorded service again, flat out: the table orders come from the recorded seed and the
+ * orders placed by hand are fed in at the simulated time they arrived, so with the recorded
+ * settings every dispatch comes out the same. With another batching policy the same inputs
+ * show what that policy would have done.
+ */
+public final class Replay {
+    //how the replay went; divergence is the first dispatch unlike the recorded one, -1 if none
+    public record Result(long makespanMs, List<RunLog.Decision> dispatches, int divergence, boolean sameLayout) {
+        public boolean matches(RunLog log) {
+            return divergence < 0 && dispatches.size() == log.dispatches().size();
+        }
+    }
+
+    private Replay() {}
+
+    //replay with the recorded settings
+    public static Result run(RunLog log, GraphModel graphModel, RoutePlanner planner) {
+        return run(log, graphModel, planner, log.header().batching());
+    }
+
+    //replay with another batching policy (a BatchingPolicies name)
+    public static Result run(RunLog log, GraphModel graphModel, RoutePlanner planner, String batching) {
+        RunLog.Header h = log.header();
+        SimulationCore core = new SimulationCore(graphModel, planner, new RouteCache(), new Random(h.seed()), h.robots());
+        core.setLogging(false);
+        core.setTripCapacity(h.tripCapacity());
+        core.setBatching(batching, h.maxWaitMs());
+        List<RunLog.Decision> dispatches = new ArrayList<>();
+        core.addListener(new SimulationCore.Listener() {
+            @Override
+            public void onDispatch(TripPlan trip) {
+                dispatches.add(RunLog.Decision.of(core.now(), trip));
+            }
+        });
+
+        core.scheduleTableOrders();
+        for (RunLog.Input in : log.orders()) {
+            core.runUntil(in.timeMs()); //everything up to then happened before the guest ordered
+            core.placeOrder(in.tableId(), in.dish());
+        }
+        long makespan = core.run();
+
+        int divergence = -1;
+        for (int i = 0; i < dispatches.size() && i < log.dispatches().size(); i++) {
+            if (!dispatches.get(i).equals(log.dispatches().get(i))) {
+                divergence = i;
+                break;
+            }
+        }
+        return new Result(makespan, dispatches, divergence, RunLog.layoutHash(graphModel) == h.layoutHash());
+    }
+}
@@ -0,0 +1,79 @@
+package sim;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Who occupies which grid cell when: the shared space-time reservations of every robot
+ * that is out on a trip. A robot in a cell holds it for [startMs, endMs); a robot stepping
+ * from one cell into the next also records that move so a robot coming the other way
+ * cannot swap places with it in the same instant.
+ *
+ * The kitchen is a depot where any number of robots may stand, so its cell is never reserved.
+ */
+public class ReservationTable {
+    private record Move(long from, long to, long atMs) {}
+
+    private final long depot; //cell that is never reserved
+    private final Map<Long, TreeMap<Long, Long>> cells = new HashMap<>(); //cell -> start -> end
+    private final Set<Move> moves = new HashSet<>();
+    private long horizonMs; //end of the latest reservation
+
+    public ReservationTable(long depotCell) {
+        this.depot = depotCell;
+    }
+
+    //grid cell as one key
+    public static long cell(int col, int row) {
+        return ((long) col << 32) | (row & 0xffffffffL);
+    }
+
+    //no other robot holds the cell anywhere in [startMs, endMs)
+    public boolean isFree(long cell, long startMs, long endMs) {
+        if (cell == depot) return true;
+        TreeMap<Long, Long> held = cells.get(cell);
+        if (held == null) return true; //nobody was ever here
+        //reservations of a cell never overlap, so only the last one starting before endMs can
+        Map.Entry<Long, Long> before = held.lowerEntry(endMs);
+        return before == null || before.getValue() <= startMs;
+    }
+
+    //nobody steps to -> from at atMs, which would be a head-on swap with from -> to
+    public boolean canMove(long from, long to, long atMs) {
+        return !moves.contains(new Move(to, from, atMs));
+    }
+
+    public void reserve(long cell, long startMs, long endMs) {
+        horizonMs = Math.max(horizonMs, endMs);
+        if (cell == depot) return;
+        cells.computeIfAbsent(cell, c -> new TreeMap<>()).put(startMs, endMs);
+    }
+
+    public void reserveMove(long from, long to, long atMs) {
+        moves.add(new Move(from, to, atMs));
+    }
+
+    //forget everything that ended before nowMs, the past cannot conflict any more
+    public void release(long nowMs) {
+        Iterator<TreeMap<Long, Long>> it = cells.values().iterator();
+        while (it.hasNext()) {
+            TreeMap<Long, Long> held = it.next();
+            held.values().removeIf(end -> end <= nowMs);
+            if (held.isEmpty()) it.remove();
+        }
+        moves.removeIf(m -> m.atMs() < nowMs);
+    }
+
+    //after this time every cell is free
+    public long horizonMs() { return horizonMs; }
+
+    public int size() {
+        int n = 0;
+        for (TreeMap<Long, Long> held : cells.values()) n += held.size();
+        return n;
+    }
+}
@@ -0,0 +1,51 @@
+package sim;
+
+import java.util.List;
+
+import model.Order;
+
+/**
+ * State of one robot of the fleet: where it is, what it carries and until when it is out.
+ * Only SimulationCore changes it; everyone else reads.
+ */
+public class Robot {
+    private final int id;
+    private String location; //node the robot is at, or the last one it reached
+    private boolean busy;
+    private TripPlan trip; //the current trip, null while at home
+    private long freeAtMs; //when the current trip ends, or since when it is idle
+
+    public Robot(int id, String location) {
+        this.id = id;
+        this.location = location;
+    }
+
+    public int id() { return id; }
+    public String location() { return location; }
+    public boolean isBusy() { return busy; }
+    public List<Order> cargo() { return trip != null ? trip.orders() : List.of(); }
+    public TripPlan trip() { return trip; }
+    public long freeAtMs() { return freeAtMs; }
+
+    void depart(TripPlan plan) {
+        busy = true;
+        trip = plan;
+        freeAtMs = plan.freeAtMs();
+    }
+
+    void arrive(String node) {
+        location = node;
+    }
+
+    void returnHome(String kitchen, long nowMs) {
+        busy = false;
+        trip = null;
+        location = kitchen;
+        freeAtMs = nowMs;
+    }
+
+    @Override
+    public String toString() {
+        return "Robot " + id + (busy ? " (busy until " + freeAtMs + " ms)" : " (idle at " + location + ")");
+    }
+}
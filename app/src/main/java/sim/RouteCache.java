@@ -0,0 +1,90 @@
+package sim;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of planned robot trips, keyed by the start node plus the
+ * unordered set of destination tables. Lunch rush repeats the same few table
+ * combinations, so most trips are served without solving the order or the legs again.
+ * Must be invalidated whenever the routing graph is rebuilt.
+ */
+public class RouteCache {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    //a planned trip: tables in visiting order, the full start -> ... -> start path and its length
+    public record Route(List<String> stops, List<String> path, long length) {
+        public Route {
+            stops = List.copyOf(stops);
+            path = List.copyOf(path);
+        }
+    }
+
+    private record Key(String start, Set<String> destinations) {}
+
+    private final Map<Key, Route> entries;
+    private long hits;
+    private long misses;
+    private long generation; //bumped by invalidate, a trip planned before it is not stored
+
+    public RouteCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RouteCache(int capacity) {
+        //access-ordered LinkedHashMap evicting its eldest entry = LRU
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Route> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    //cached trip for these destinations, planned by the supplier on a miss
+    public Route get(String start, Collection<String> destinations, Supplier<Route> planner) {
+        Key key = new Key(start, Set.copyOf(destinations));
+        long plannedIn;
+        synchronized (this) {
+            Route cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            plannedIn = generation;
+        }
+        Route planned = planner.get();
+        synchronized (this) {
+            //the graph was rebuilt while planning: hand the trip to this caller, keep it out of the cache
+            if (generation == plannedIn) entries.put(key, planned);
+        }
+        return planned;
+    }
+
+    //drop every entry and reset the counters, called when the graph is rebuilt
+    public synchronized void invalidate() {
+        entries.clear();
+        generation++;
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.1f%% size=%d", hits, misses, hitRate() * 100, entries.size());
+    }
+}
@@ -0,0 +1,169 @@
+package sim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Dish;
+import model.GraphModel;
+import model.Order;
+
+/**
+ * Everything needed to run a service again exactly as it went: the seed of its Random, the
+ * settings that decide trips, every order placed by hand (with the simulated time it arrived)
+ * and, to check the replay against, every dispatch decision.
+ *
+ * On disk (written by RunRecorder) it is a header followed by one record per input or
+ * decision. Every number is a varint (7 bits per byte, low bits first, signed ones zigzagged)
+ * and every record's time is the delta to the record before it, so a busy service costs a
+ * few bytes per order:
+ *
+ *   header    magic "RLOG", version, seed, robots, trip capacity, max wait, batching, layout hash
+ *   ORDER     tag, dt, table id, dish
+ *   DISPATCH  tag, dt, robot, count, count x (table number, dish, ms the order waited)
+ *   END       tag, dt                          (time = end of the service, late orders may follow)
+ */
+public record RunLog(Header header, List<Input> orders, List<Decision> dispatches, long endMs) {
+    static final int MAGIC = 0x524C4F47; //"RLOG"
+    static final int VERSION = 1;
+    static final byte ORDER = 1;
+    static final byte DISPATCH = 2;
+    static final byte END = 3;
+
+    //the settings of the recorded run; batching is a BatchingPolicies name
+    public record Header(long seed, int robots, int tripCapacity, long maxWaitMs, String batching, int layoutHash) {}
+
+    //an order placed by hand at timeMs
+    public record Input(long timeMs, String tableId, Dish dish) {}
+
+    //robot left at timeMs with these orders
+    public record Decision(long timeMs, int robot, List<Item> orders) {
+        public Decision {
+            orders = List.copyOf(orders);
+        }
+
+        static Decision of(long timeMs, TripPlan trip) {
+            List<Item> items = new ArrayList<>();
+            for (Order o : trip.orders()) {
+                items.add(new Item(o.tableNumber(), o.dish(), o.placedAtMs()));
+            }
+            return new Decision(timeMs, trip.robot(), items);
+        }
+    }
+
+    public record Item(int table, Dish dish, long placedMs) {}
+
+    public RunLog {
+        orders = List.copyOf(orders);
+        dispatches = List.copyOf(dispatches);
+    }
+
+    public static RunLog read(Path file) throws IOException {
+        ByteBuffer in;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = ByteBuffer.allocate(Math.toIntExact(ch.size()));
+            while (in.hasRemaining() && ch.read(in) >= 0) {
+                //keep reading
+            }
+        }
+        in.flip();
+        if (in.remaining() < 4 || in.getInt() != MAGIC) throw new IOException("Not a run log: " + file);
+        int version = (int) readVarLong(in);
+        if (version != VERSION) throw new IOException("Run log version " + version + " is not supported: " + file);
+        Header header = new Header(readSigned(in), (int) readVarLong(in), (int) readVarLong(in),
+            readVarLong(in), readString(in), (int) readSigned(in));
+
+        List<Input> orders = new ArrayList<>();
+        List<Decision> dispatches = new ArrayList<>();
+        long t = 0;
+        long end = -1;
+        while (in.hasRemaining()) {
+            byte tag = in.get();
+            t += readVarLong(in);
+            switch (tag) {
+                case ORDER -> orders.add(new Input(t, readString(in), Dish.values()[(int) readVarLong(in)]));
+                case DISPATCH -> {
+                    int robot = (int) readVarLong(in);
+                    int count = (int) readVarLong(in);
+                    List<Item> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        int table = (int) readVarLong(in);
+                        Dish dish = Dish.values()[(int) readVarLong(in)];
+                        items.add(new Item(table, dish, t - readVarLong(in)));
+                    }
+                    dispatches.add(new Decision(t, robot, items));
+                }
+                case END -> end = t; //orders placed after the end still follow
+                default -> throw new IOException("Bad record tag " + tag + " in " + file);
+            }
+        }
+        return new RunLog(header, orders, dispatches, end >= 0 ? end : t); //no END: cut short, never finished
+    }
+
+    //same layout as the recorded one? names, kinds and corridor lengths, not positions on screen
+    public static int layoutHash(GraphModel gm) {
+        int h = 1;
+        for (GraphModel.Node n : gm.nodes()) {
+            h = 31 * h + n.name().hashCode();
+            h = 31 * h + n.type().name().hashCode();
+        }
+        for (GraphModel.Edge e : gm.edges()) {
+            h = 31 * h + gm.nameOf(e.from).hashCode();
+            h = 31 * h + gm.nameOf(e.to).hashCode();
+            h = 31 * h + e.steps();
+        }
+        return h;
+    }
+
+    //--- varints ---
+
+    static void writeVarLong(ByteBuffer out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long v = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IllegalStateException("Varint longer than 64 bits");
+    }
+
+    //small negative numbers stay small
+    static void writeSigned(ByteBuffer out, long v) {
+        writeVarLong(out, (v << 1) ^ (v >> 63));
+    }
+
+    static long readSigned(ByteBuffer in) {
+        long v = readVarLong(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static void writeString(ByteBuffer out, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.put(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //bytes a string takes at most in the log
+    static int maxStringBytes(String s) {
+        return 10 + s.length() * 3;
+    }
+}
@@ -0,0 +1,111 @@
+package sim;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.Dish;
+import model.GraphModel;
+import model.Order;
+
+/**
+ * Writes a RunLog while the service runs: attach it to the core, and tell it about every order
+ * placed by hand. Records go to a buffer that is written out through a FileChannel when it
+ * fills up and on close; everything happens on the thread that runs the core.
+ */
+public class RunRecorder implements SimulationCore.Listener, Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_ITEM_BYTES = 3 * 10; //table, dish, wait
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final SimulationCore core;
+    private long lastMs; //time of the previous record, the next one stores the delta
+
+    //start a log for core, which has not run yet and draws its table orders from new Random(seed)
+    public static RunRecorder attach(Path file, SimulationCore core, GraphModel graphModel, long seed) throws IOException {
+        RunRecorder recorder = new RunRecorder(file, core, graphModel, seed);
+        core.addListener(recorder);
+        return recorder;
+    }
+
+    private RunRecorder(Path file, SimulationCore core, GraphModel graphModel, long seed) throws IOException {
+        this.core = core;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        String batching = core.batchingName() != null ? core.batchingName() : BatchingPolicies.DEFAULT;
+        buffer.putInt(RunLog.MAGIC);
+        RunLog.writeVarLong(buffer, RunLog.VERSION);
+        RunLog.writeSigned(buffer, seed);
+        RunLog.writeVarLong(buffer, core.fleet().size());
+        RunLog.writeVarLong(buffer, core.tripCapacity());
+        RunLog.writeVarLong(buffer, core.maxWaitMs());
+        RunLog.writeString(buffer, batching);
+        RunLog.writeSigned(buffer, RunLog.layoutHash(graphModel));
+    }
+
+    //an order placed by hand, call right before core.placeOrder
+    public void order(String tableId, Dish dish) {
+        ensure(1 + 10 + RunLog.maxStringBytes(tableId) + 10);
+        record(RunLog.ORDER);
+        RunLog.writeString(buffer, tableId);
+        RunLog.writeVarLong(buffer, dish.ordinal());
+    }
+
+    @Override
+    public void onDispatch(TripPlan trip) {
+        ensure(1 + 3 * 10);
+        record(RunLog.DISPATCH);
+        RunLog.writeVarLong(buffer, trip.robot());
+        RunLog.writeVarLong(buffer, trip.orders().size());
+        for (Order o : trip.orders()) {
+            ensure(MAX_ITEM_BYTES);
+            RunLog.writeVarLong(buffer, o.tableNumber());
+            RunLog.writeVarLong(buffer, o.dish().ordinal());
+            RunLog.writeVarLong(buffer, lastMs - o.placedAtMs());
+        }
+    }
+
+    @Override
+    public void onComplete(long makespanMs) {
+        ensure(1 + 10);
+        record(RunLog.END);
+        flush();
+    }
+
+    //tag and time delta of a new record
+    private void record(byte tag) {
+        long now = core.now();
+        buffer.put(tag);
+        RunLog.writeVarLong(buffer, now - lastMs);
+        lastMs = now;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,70 @@
+package sim;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Wall-clock time multiplied by a factor. Pausing and changing the factor rebase the clock,
+ * so simulated time never jumps: it only ever moves forward at the current rate.
+ */
+public class ScaledClock implements SimClock {
+    private final LongSupplier wallNanos;
+    private double scale;
+    private long baseSimMs;   //simulated time at the last rebase
+    private long baseWallNs;  //wall time at the last rebase
+    private boolean paused;
+
+    public ScaledClock(double scale) {
+        this(scale, System::nanoTime);
+    }
+
+    //wallNanos is the time source, replaceable in tests
+    public ScaledClock(double scale, LongSupplier wallNanos) {
+        if (!(scale > 0) || Double.isInfinite(scale)) {
+            throw new IllegalArgumentException("Scale must be positive and finite: " + scale);
+        }
+        this.scale = scale;
+        this.wallNanos = wallNanos;
+        this.baseWallNs = wallNanos.getAsLong();
+    }
+
+    @Override
+    public synchronized long nowMs() {
+        if (paused) return baseSimMs;
+        return baseSimMs + (long) ((wallNanos.getAsLong() - baseWallNs) / 1_000_000.0 * scale);
+    }
+
+    //continue from simulatedMs, e.g. 0 for a new service
+    public synchronized void startAt(long simulatedMs) {
+        baseSimMs = simulatedMs;
+        baseWallNs = wallNanos.getAsLong();
+    }
+
+    public synchronized void setScale(double newScale) {
+        if (!(newScale > 0) || Double.isInfinite(newScale)) {
+            throw new IllegalArgumentException("Scale must be positive and finite: " + newScale);
+        }
+        rebase();
+        scale = newScale;
+    }
+
+    public synchronized double scale() { return scale; }
+
+    public synchronized void pause() {
+        if (paused) return;
+        rebase();
+        paused = true;
+    }
+
+    public synchronized void resume() {
+        if (!paused) return;
+        baseWallNs = wallNanos.getAsLong();
+        paused = false;
+    }
+
+    public synchronized boolean isPaused() { return paused; }
+
+    private void rebase() {
+        baseSimMs = nowMs();
+        baseWallNs = wallNanos.getAsLong();
+    }
+}
@@ -1,247 +1,148 @@
 package sim;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Queue;
-import java.util.Optional;
-import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.stream.Collectors;
 
-import model.Graph;
+import log.Log;
+import log.Logger;
 import model.GraphModel;
-import model.GraphModel.Node;
-import model.GraphModel.NodeInfo;
-import model.GraphModel.NodeKind;
 import model.Order;
+import routing.RoutePlanner;
 
-public class ServeRobot { //handles the completed orders and send them to the robot
-    private final Graph graph; //restaurant layout
+public class ServeRobot { //plans the trips of the delivery robot
+    private final RoutePlanner planner; //shortest paths on the restaurant layout
+    private final RouteCache routeCache; //trips already planned for the same set of tables
     private final GraphModel graphModel; //the graph with all nodes and paths
     private final String kitchenNode; //the kitchen node
-    private final Queue<Order> serveQueue; //queue of orders
-    private final SimulationEngine simulationEngine; //reference to the main engine
+    private Logger log = Log.logger("robot"); //Logger.OFF for batch runs
 
-    public ServeRobot(Graph graph, GraphModel graphModel, String kitchenNode, Queue<Order> serveQueue, SimulationEngine simulationEngine) {
-        this.graph = graph;
+    public ServeRobot(RoutePlanner planner, RouteCache routeCache, GraphModel graphModel, String kitchenNode) {
+        this.planner = planner;
+        this.routeCache = routeCache;
         this.graphModel = graphModel;
         this.kitchenNode = kitchenNode;
-        this.serveQueue = serveQueue;
-        this.simulationEngine = simulationEngine;
     }
 
-    public List<String> calculateRoute() { //collect up to 3 orders
-        List<Order> batch = new ArrayList<>();
-        for (Order o : serveQueue) {
-            batch.add(o);
-            if (batch.size() >= 3) break;
-        }
-        
-        if (batch.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        //create full path of kitchen -> each table -> kitchen
-        List<String> fullPath = new ArrayList<>();
-        String current = kitchenNode;
-        fullPath.add(current);
-        
-        //create a map to track unique tables and their dishes
-        Map<Integer, String> tableToNode = new HashMap<>();
-        for (Order o : batch) {
-            int tableNum = o.tableNumber();
-            String nodeName = lookupNodeName(tableNum);
-            tableToNode.put(tableNum, nodeName);
-        }
-        
-        //create array of unique tables to visit
-        List<String> tablesToVisit = solveOrderOptimization(current, tableToNode);
-        
-        //visit each table in the optimized order
-        for (String dest : tablesToVisit) {
-            if (current.equals(dest)) {
-                continue;
-            }
-            
-            List<String> segment = graph.dijkstra(current, dest);
-            
-            if (segment.size() == 1 && adjacencyListContainsEdge(current, dest)) {
-                segment = Arrays.asList(current, dest);
-            }
-            
-            if (segment.size() > 1) {
-                fullPath.addAll(segment.subList(1, segment.size()));
-                current = dest;
-            }
-        }
-        
-        // Return to kitchen
-        List<String> back = graph.dijkstra(current, kitchenNode);
-        if (back.size() == 1 && adjacencyListContainsEdge(current, kitchenNode)) {
-            back = Arrays.asList(current, kitchenNode);
-        }
-        if (back.size() > 1) {
-            fullPath.addAll(back.subList(1, back.size()));
-        }
-        
-        return fullPath;
-    }
+    public String kitchenNode() { return kitchenNode; }
+    public void setLogging(boolean logging) { this.log = logging ? Log.logger("robot") : Logger.OFF; }
 
-    //serves up to 3 orders in the robot queue
-    public void serve() {
-        System.out.println("[ROBOT] Starting delivery run...");
-
-        // 1) Collect up to 3 orders
-        List<Order> batch = new ArrayList<>();
-        for (int i = 0; i < 3; i++) {
-            Order o = serveQueue.poll();
-            if (o == null) break;
-            batch.add(o);
-        }
-        if (batch.isEmpty()) {
-            System.out.println("[ROBOT] No items to serve.");
-            return;
-        }
+    //plan the trip kitchen -> every table of the batch -> kitchen
+    public RouteCache.Route planTrip(List<Order> batch) {
+        //plan (or reuse) the trip kitchen -> each table -> kitchen
+        RouteCache.Route route = planRoute(batch);
+        if (!log.isInfo()) return route;
 
         //console log for debugging
         String ordersList = batch.stream()
             .map(o -> o.dish().name() + " from " + lookupNodeName(o.tableNumber()))
             .collect(Collectors.joining(", "));
-        System.out.println("[DISPATCH] Robot taking " + batch.size() + " orders: " + ordersList);
-
-        //createfull path: kitchen -> each table -> kitchen
-        List<String> fullPath = new ArrayList<>();
-        String current = kitchenNode;
-        fullPath.add(current);
-
-        //create a map to track unique tables and their dishes
-        Map<Integer, String> tableToNode = new HashMap<>();
-        for (Order o : batch) {
-            int tableNum = o.tableNumber();
-            String nodeName = lookupNodeName(tableNum);
-            tableToNode.put(tableNum, nodeName);
-        }
-
-        // Create array of unique tables to visit
-        List<String> tablesToVisit = solveOrderOptimization(current, tableToNode);
-        
-        // Now visit each table in the optimized order
-        for (String dest : tablesToVisit) {
-            if (current.equals(dest)) {
-                //the robot is already at this table, no travel needed
-                continue;
-            }
-            
-            List<String> segment = graph.dijkstra(current, dest);
-
-            if (segment.size() == 1 && adjacencyListContainsEdge(current, dest)) {
-                segment = Arrays.asList(current, dest);
-            }
-            
-            if (segment.size() > 1) {
-                fullPath.addAll(segment.subList(1, segment.size()));
-                current = dest;
-                
-                //notify the delivery system that the table has been reached
-                SimulationEngine.getInstance().notifyDelivery(dest);
-            } else {
-                System.err.println("[ROBOT] Error: No path from " + current + " to " + dest);
-            }
-        }
-        
-        //return to kitchen
-        List<String> back = graph.dijkstra(current, kitchenNode);
-        if (back.size() == 1 && adjacencyListContainsEdge(current, kitchenNode)) {
-            back = Arrays.asList(current, kitchenNode);
-        }
-        if (back.size() > 1) {
-            fullPath.addAll(back.subList(1, back.size()));
-        }
+        log.info("[DISPATCH] Robot taking {} orders: {}", batch.size(), ordersList);
 
         //output the log K -> ... -> K for debugging
-        System.out.println("[ROBOT] Route: " + String.join(" -> ", fullPath));
-
-       //calculate the total distance
-       double total = 0;
-       for (int i = 0; i < fullPath.size() - 1; i++) {
-           String u = fullPath.get(i);
-           String v = fullPath.get(i + 1);
-           double segmentWeight = graph.getWeight(u, v) + 1;
-           total += segmentWeight;
-       }
-       System.out.println("[ROBOT] Total distance (round trip): " + total);
+        log.info("[ROBOT] Route: {}", String.join(" -> ", route.path()));
 
-       //summarize the delivery
-       String delivered = batch.stream()
-           .map(o -> lookupNodeName(o.tableNumber()))
-           .collect(Collectors.joining(", "));
-       System.out.println("[ROBOT] Delivered to: " + delivered + "; returning to kitchen.");
-   }
+        //total distance of the round trip, known from planning
+        log.info("[ROBOT] Total distance (round trip): {}", route.length());
+        return route;
+    }
 
-   //greedy nearest-neighbor algorithm
-   private List<String> solveOrderOptimization(String start, Map<Integer, String> tableToNode) {
-       Set<String> uniqueTables = new HashSet<>(tableToNode.values());
-       List<String> result = new ArrayList<>();
-       
-       //if only 0 or 1 table exists in the route, the solution is trivial
-       if (uniqueTables.size() <= 1) {
-           return new ArrayList<>(uniqueTables);
+    //grid steps between two nodes with the selected planner
+    public int distance(String from, String to) {
+        return planner.distance(from, to);
+    }
+
+   //trip for the tables of this batch, from the route cache when the same set of tables was planned before
+   private RouteCache.Route planRoute(List<Order> batch) {
+       //create a map to track unique tables and their dishes
+       Map<Integer, String> tableToNode = new HashMap<>();
+       for (Order o : batch) {
+           int tableNum = o.tableNumber();
+           String node = lookupNodeName(tableNum);
+           //an unreachable table would put UNREACHABLE steps into the tour length and the timing
+           if (planner.distance(kitchenNode, node) == RoutePlanner.UNREACHABLE) {
+               log.warn("[ROBOT] Table {} cannot be reached from {}, left out of the trip", node, kitchenNode);
+               continue;
+           }
+           tableToNode.put(tableNum, node);
        }
-       
-       //greedy nearest-neighbor approach
-       String current = start;
-       Set<String> visited = new HashSet<>();
-       
-       while (visited.size() < uniqueTables.size()) {
-           String nearest = null;
-           double minDistance = Double.MAX_VALUE;
-           
-           for (String node : uniqueTables) {
-               if (visited.contains(node)) continue;
-               
-               List<String> path = graph.dijkstra(current, node);
-               double distance = path.size() - 1; //simple distance metric
-               if (path.size() <= 1 && adjacencyListContainsEdge(current, node)) {
-                   distance = 1; //direct edge case
+       return routeCache.get(kitchenNode, tableToNode.values(), () -> {
+           //create full path of kitchen -> each table -> kitchen
+           Tour tour = solveOrderOptimization(kitchenNode, tableToNode);
+           List<String> fullPath = new ArrayList<>();
+           List<String> reached = new ArrayList<>();
+           String current = kitchenNode;
+           fullPath.add(current);
+
+           //visit each table in the optimized order
+           for (String dest : tour.stops()) {
+               if (current.equals(dest)) {
+                   //the robot is already at this table, no travel needed
+                   continue;
                }
-               
-               if (distance < minDistance) {
-                   minDistance = distance;
-                   nearest = node;
+               if (appendLeg(fullPath, current, dest)) {
+                   current = dest;
+                   reached.add(dest);
+               } else {
+                   log.warn("[ROBOT] Error: No path from {} to {}", current, dest);
                }
            }
-           
-           if (nearest != null) {
-               result.add(nearest);
-               visited.add(nearest);
-               current = nearest;
-           } else {
-               break; //prevent a disconnected node case (shouldn't happen)
+
+           //return to kitchen
+           appendLeg(fullPath, current, kitchenNode);
+           return new RouteCache.Route(reached, fullPath, tour.length());
+       });
+   }
+
+   //tables in visiting order and the round-trip length
+   private record Tour(List<String> stops, long length) {}
+
+   //shortest round trip over the weighted distances: exact Held-Karp for small batches,
+   //nearest-neighbour + 2-opt above TripOptimizer.EXACT_LIMIT stops
+   private Tour solveOrderOptimization(String start, Map<Integer, String> tableToNode) {
+       List<String> uniqueTables = new ArrayList<>(new LinkedHashSet<>(tableToNode.values()));
+       
+       //distance matrix: index 0 is the start, 1..k the tables
+       List<String> stops = new ArrayList<>();
+       stops.add(start);
+       stops.addAll(uniqueTables);
+       long[][] dist = new long[stops.size()][stops.size()];
+       for (int i = 0; i < stops.size(); i++) {
+           for (int j = i + 1; j < stops.size(); j++) {
+               int d = planner.distance(stops.get(i), stops.get(j));
+               dist[i][j] = d; //unreachable stays Integer.MAX_VALUE: huge but no overflow
+               dist[j][i] = d;
            }
        }
        
-       return result;
+       int[] order = TripOptimizer.order(dist);
+       List<String> result = new ArrayList<>();
+       for (int stop : order) {
+           result.add(stops.get(stop));
+       }
+       return new Tour(result, TripOptimizer.tourLength(dist, order));
    }
 
-   //search for the table name by its table number
+   //table name by its table number
    private String lookupNodeName(int tableNumber) {
-       for (Node node : graphModel.nodes()) {
-           Optional<NodeInfo> infoOpt = graphModel.getNodeInfo(node.id());
-           if (infoOpt.isPresent() && infoOpt.get().kind == NodeKind.TABLE && infoOpt.get().number == tableNumber) {
-               return node.name();
-           }
+       return graphModel.tableName(tableNumber, String.valueOf(tableNumber));
+   }
+
+   //append the shortest path from -> to (without its first node) to the route, false if unreachable
+   private boolean appendLeg(List<String> fullPath, String from, String to) {
+       List<String> leg = leg(from, to);
+       if (leg.size() < 2) {
+           return false;
        }
-       return String.valueOf(tableNumber);
+       fullPath.addAll(leg.subList(1, leg.size()));
+       return true;
    }
 
-   //check if there's a direct edge between src node and dest node
-   private boolean adjacencyListContainsEdge(String src, String dest) {
-       return graph
-           .getAllEdges()
-           .stream()
-           .anyMatch(e -> e.getSrc().equals(src) && e.getDest().equals(dest));
+   //shortest path between two nodes with the selected planner
+   private List<String> leg(String from, String to) {
+       return planner.path(from, to);
    }
-}
\ No newline at end of file
+}
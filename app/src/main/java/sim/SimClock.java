@@ -0,0 +1,25 @@
+package sim;
+
+/**
+ * Simulated time, in ms since the service started, for everything that paces or shows
+ * the simulation. The core always runs on its own event time; the clock only decides how
+ * far the engine lets it run and what the panes display.
+ *
+ * real() follows the wall clock, scaled() runs it k times faster (and can be paused),
+ * virtual() does not follow the wall clock at all and lets the core run flat out.
+ */
+public interface SimClock {
+    long nowMs();
+
+    static ScaledClock real() {
+        return new ScaledClock(1);
+    }
+
+    static ScaledClock scaled(double factor) {
+        return new ScaledClock(factor);
+    }
+
+    static VirtualClock virtual() {
+        return new VirtualClock();
+    }
+}
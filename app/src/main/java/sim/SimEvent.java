@@ -0,0 +1,23 @@
+package sim;
+
+import model.Dish;
+
+/**
+ * Something that happens at a point of virtual time (ms since the service started).
+ * SimulationCore keeps these in a priority queue and processes them in time order.
+ */
+public sealed interface SimEvent {
+    long timeMs();
+
+    //a guest at tableId orders one dish
+    record OrderPlaced(long timeMs, String tableId, Dish dish) implements SimEvent {}
+
+    //a chef takes the order it was cooking off the stove
+    record CookFinished(long timeMs, int chef) implements SimEvent {}
+
+    //a robot reaches a table of its current trip and hands over the food
+    record RobotAtTable(long timeMs, int robot, String table) implements SimEvent {}
+
+    //a robot is back at the kitchen and can take the next trip
+    record RobotAtKitchen(long timeMs, int robot) implements SimEvent {}
+}
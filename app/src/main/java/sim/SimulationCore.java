@@ -0,0 +1,395 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import log.Log;
+import log.Logger;
+import model.ChefQueue;
+import model.Dish;
+import model.GraphModel;
+import model.GraphModel.NodeKind;
+import model.Order;
+import model.RobotQueue;
+import routing.RoutePlanner;
+
+/**
+ * Headless discrete-event simulation of one service: guests order, the kitchen staff of the
+ * layout cooks, a fleet of robots delivers. Pending events are processed one at a time in order
+ * of virtual time (ms since the service started, ties in scheduling order), so nothing ever
+ * waits for the wall clock and a whole service runs as fast as the CPU allows. Cook completions,
+ * the bulk of all events, sit in a TimingWheel at their finish time; the rest in a priority queue.
+ *
+ * There is no JavaFX in here; SimulationEngine paces the core for the UI and forwards its
+ * events to the panes through the Listener.
+ */
+public class SimulationCore {
+    public static final int MS_PER_STEP = 500;  //robot speed, one grid step every half second
+    public static final int LOAD_MS = 200;      //loading the cargo before the robot leaves the kitchen
+    public static final int UNLOAD_MS = 500;    //back at the kitchen until the robot can leave again
+    public static final int TRIP_CAPACITY = 3;  //orders a robot carries per trip, by default
+
+    //everything the outside world may want to see, all called on the thread that runs the core
+    public interface Listener {
+        default void onOrderPlaced(Order order) {}
+        default void onCookStarted(Order order, int chef) {}
+        default void onCooked(Order order) {}
+        default void onDispatch(TripPlan trip) {}
+        default void onDelivery(int robot, String tableName) {}
+        default void onOrderDelivered(Order order) {}
+        default void onRobotReturned(int robot) {}
+        default void onComplete(long makespanMs) {}
+    }
+
+    //queue entry; seq keeps events with the same time in the order they were scheduled
+    private record Scheduled(SimEvent event, long seq) implements Comparable<Scheduled> {
+        @Override
+        public int compareTo(Scheduled o) {
+            int c = Long.compare(event.timeMs(), o.event.timeMs());
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    private final PriorityQueue<Scheduled> events = new PriorityQueue<>();
+    private final TimingWheel<SimEvent.CookFinished> cookWheel = new TimingWheel<>(0);
+    private long nextSeq;
+    private long now;
+
+    private final GraphModel graphModel;
+    private final ServeRobot planner; //plans trips for every robot
+    private final Dispatcher dispatcher;
+    private BatchingPolicy batching; //which ready orders go on a trip
+    private String batchingName; //its configuration name, null for a policy set directly
+    private long maxWaitMs;
+    private int tripCapacity = BatchingPolicies.configuredCapacity();
+    private final List<Robot> fleet = new ArrayList<>();
+    private final SpaceTimePlanner spaceTime; //conflict-free timing for a fleet, null for a single robot
+    private final Random random;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private final Kitchen kitchen;
+    private final RobotQueue robotQ = new RobotQueue();
+    private int ordersPlaced;
+    private int ordersDelivered;
+    private int ordersDropped; //cooked, but no robot can reach the table or get past the others
+    private long waitSteps; //steps robots stood still to let others pass
+    private boolean finished;
+    private Logger log = Log.logger("sim"); //Logger.OFF for batch runs
+
+    public SimulationCore(GraphModel graphModel, RoutePlanner planner, RouteCache routeCache, Random random) {
+        this(graphModel, planner, routeCache, random, 1);
+    }
+
+    public SimulationCore(GraphModel graphModel, RoutePlanner planner, RouteCache routeCache, Random random, int robots) {
+        if (robots < 1) throw new IllegalArgumentException("Need at least one robot: " + robots);
+        this.graphModel = graphModel;
+        this.random = random;
+        String kitchen = graphModel.kitchenId().flatMap(graphModel::findNode).map(GraphModel.Node::name).orElse("K");
+        this.planner = new ServeRobot(planner, routeCache, graphModel, kitchen);
+        this.dispatcher = new Dispatcher();
+        setBatching(BatchingPolicies.configuredName(), BatchingPolicies.configuredMaxWaitMs());
+        for (int i = 0; i < robots; i++) {
+            fleet.add(new Robot(i, kitchen));
+        }
+        //a lone robot never meets anyone, it simply follows the planned route
+        if (robots > 1) {
+            long depot = graphModel.findNodeByName(kitchen)
+                .map(n -> ReservationTable.cell(n.col(), n.row()))
+                .orElse(Long.MIN_VALUE);
+            this.spaceTime = new SpaceTimePlanner(graphModel, new ReservationTable(depot), this.planner::distance, kitchen);
+        } else {
+            this.spaceTime = null;
+        }
+        this.kitchen = new Kitchen(graphModel.staffing());
+    }
+
+    public void setBatching(BatchingPolicy batching) {
+        this.batching = batching;
+        this.batchingName = null;
+    }
+
+    //a policy by its BatchingPolicies name
+    public void setBatching(String name, long maxWaitMs) {
+        this.batching = BatchingPolicies.create(name, planner, graphModel, maxWaitMs);
+        this.batchingName = name;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public String batchingName() { return batchingName; }
+    public long maxWaitMs() { return maxWaitMs; }
+    public int tripCapacity() { return tripCapacity; }
+
+    public void setTripCapacity(int orders) {
+        if (orders < 1) throw new IllegalArgumentException("A robot has to carry at least one order: " + orders);
+        this.tripCapacity = orders;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    //false: no console output at any level, for batch runs
+    public void setLogging(boolean logging) {
+        this.log = logging ? Log.logger("sim") : Logger.OFF;
+        planner.setLogging(logging);
+    }
+
+    //randomize orders per table based on n-1 and n+3 rule, each batch arrives 1-5 s into the service
+    public void scheduleTableOrders() {
+        for (GraphModel.Node node : graphModel.nodes()) {
+            if (node.type().seats <= 0) continue; //only actual tables
+            int seats = node.type().seats;
+            int min = Math.max(1, seats - 1);
+            int max = seats + 3;
+            int remaining = random.nextInt(max - min + 1) + min;
+            while (remaining > 0) {
+                int batch = random.nextInt(Math.min(3, remaining)) + 1;
+                long at = now + (long) ((1 + random.nextDouble() * 4) * 1000);
+                for (int i = 0; i < batch; i++) {
+                    Dish d = Dish.values()[random.nextInt(Dish.values().length)];
+                    schedule(new SimEvent.OrderPlaced(at, node.id(), d));
+                }
+                remaining -= batch;
+            }
+        }
+    }
+
+    //place an order right now
+    public void placeOrder(String tableId, Dish d) {
+        schedule(new SimEvent.OrderPlaced(now, tableId, d));
+    }
+
+    public void schedule(SimEvent event) {
+        if (event.timeMs() < now) {
+            throw new IllegalArgumentException("Event in the past: " + event + " at " + now);
+        }
+        if (event instanceof SimEvent.CookFinished cook) {
+            cookWheel.add(cook.timeMs(), nextSeq++, cook);
+        } else {
+            events.add(new Scheduled(event, nextSeq++));
+        }
+    }
+
+    private boolean hasEvents() {
+        return !events.isEmpty() || !cookWheel.isEmpty();
+    }
+
+    //time of the next event, Long.MAX_VALUE if there is none
+    private long nextEventTime() {
+        Scheduled head = events.peek();
+        return Math.min(head != null ? head.event().timeMs() : Long.MAX_VALUE, cookWheel.peekTime());
+    }
+
+    //the earlier of the queue's and the wheel's next event, scheduling order on a tie
+    private SimEvent pollEvent() {
+        Scheduled head = events.peek();
+        if (cookWheel.isEmpty()) return head != null ? events.poll().event() : null;
+        if (head == null) return cookWheel.poll();
+        long t = head.event().timeMs();
+        long w = cookWheel.peekTime();
+        boolean wheelFirst = w < t || (w == t && cookWheel.peekSeq() < head.seq());
+        return wheelFirst ? cookWheel.poll() : events.poll().event();
+    }
+
+    //process the next event, false if there is none
+    public boolean step() {
+        SimEvent next = pollEvent();
+        if (next == null) return false;
+        now = next.timeMs();
+        handle(next);
+        if (!hasEvents()) complete();
+        return true;
+    }
+
+    //process every event up to and including timeMs, then move the clock there
+    public void runUntil(long timeMs) {
+        while (hasEvents() && nextEventTime() <= timeMs) {
+            step();
+        }
+        if (!hasEvents()) complete(); //also covers a layout that never had anything to do
+        now = Math.max(now, timeMs);
+    }
+
+    //process everything, returns the makespan (time of the last event)
+    public long run() {
+        while (step()) {
+            //keep going
+        }
+        complete();
+        return now;
+    }
+
+    //nothing left to happen: every order is delivered and the robot is home
+    private void complete() {
+        if (finished) return;
+        finished = true;
+        for (Listener l : listeners) l.onComplete(now);
+    }
+
+    public long now() { return now; }
+    public boolean isFinished() { return finished; }
+    public int ordersPlaced() { return ordersPlaced; }
+    public int ordersDelivered() { return ordersDelivered; }
+    public int ordersDropped() { return ordersDropped; }
+    public ChefQueue[] chefQueues() { return kitchen.stations(); }
+    public Kitchen kitchen() { return kitchen; }
+    public RobotQueue robotQueue() { return robotQ; }
+    public List<Robot> fleet() { return Collections.unmodifiableList(fleet); }
+
+    public long waitSteps() { return waitSteps; }
+
+    public boolean isRobotBusy() { return busyRobots() > 0; }
+
+    public int busyRobots() {
+        int busy = 0;
+        for (Robot r : fleet) {
+            if (r.isBusy()) busy++;
+        }
+        return busy;
+    }
+
+    private void handle(SimEvent event) {
+        switch (event) {
+            case SimEvent.OrderPlaced e -> orderPlaced(e);
+            case SimEvent.CookFinished e -> cookFinished(e);
+            case SimEvent.RobotAtTable e -> robotAtTable(e);
+            case SimEvent.RobotAtKitchen e -> robotAtKitchen(e);
+        }
+    }
+
+    private void orderPlaced(SimEvent.OrderPlaced e) {
+        //only enqueue real TABLE nodes
+        Optional<GraphModel.NodeInfo> info = graphModel.getNodeInfo(e.tableId());
+        if (info.isEmpty() || info.get().kind != NodeKind.TABLE) return;
+        int tableNum = info.get().number;
+        Order order = new Order(tableNum, e.dish(), now);
+        kitchen.enqueue(order);
+        ordersPlaced++;
+        log.info("[ORDER] Table {} → {}", tableNum, e.dish());
+        for (Listener l : listeners) l.onOrderPlaced(order);
+        startCooking();
+    }
+
+    private void cookFinished(SimEvent.CookFinished e) {
+        Order done = kitchen.finish(e.chef());
+        robotQ.add(done);
+        log.info("[COOKED] {} for Table {}", done.dish(), done.tableNumber());
+        for (Listener l : listeners) l.onCooked(done);
+        startCooking();
+        dispatchIfIdle();
+    }
+
+    //free chefs pick up waiting orders, each is done after its dish's cooking time
+    private void startCooking() {
+        for (Kitchen.Started s : kitchen.assign(now)) {
+            schedule(new SimEvent.CookFinished(s.finishMs(), s.chef().id()));
+            for (Listener l : listeners) l.onCookStarted(s.order(), s.chef().id());
+        }
+    }
+
+    private void robotAtTable(SimEvent.RobotAtTable e) {
+        Robot robot = fleet.get(e.robot());
+        String table = e.table();
+        robot.arrive(table);
+        for (Order o : robot.cargo()) {
+            if (graphModel.tableName(o.tableNumber(), "").equals(table)) {
+                ordersDelivered++;
+                for (Listener l : listeners) l.onOrderDelivered(o);
+            }
+        }
+        log.info("[ROBOT {}] Delivered to: {}", robot.id(), table);
+        for (Listener l : listeners) l.onDelivery(robot.id(), table);
+    }
+
+    private void robotAtKitchen(SimEvent.RobotAtKitchen e) {
+        Robot robot = fleet.get(e.robot());
+        robot.returnHome(planner.kitchenNode(), now);
+        for (Listener l : listeners) l.onRobotReturned(robot.id());
+        dispatchIfIdle();
+    }
+
+    //hand ready food to idle robots, one trip each, until either runs out
+    private void dispatchIfIdle() {
+        while (!robotQ.getQueue().isEmpty() && busyRobots() < fleet.size()) {
+            List<Order> trip = batching.pick(List.copyOf(robotQ.getQueue()), tripCapacity, now);
+            robotQ.take(trip);
+            RouteCache.Route route = planner.planTrip(trip);
+            trip = reachable(trip, route);
+            if (trip.isEmpty()) continue;
+            Robot robot = dispatcher.choose(fleet);
+            send(robot, trip, route);
+        }
+    }
+
+    //the orders of the trip whose table is on the route; the others cannot be delivered and are dropped
+    private List<Order> reachable(List<Order> trip, RouteCache.Route route) {
+        List<Order> onRoute = new ArrayList<>(trip.size());
+        for (Order o : trip) {
+            if (route.stops().contains(graphModel.tableName(o.tableNumber(), ""))) {
+                onRoute.add(o);
+            } else {
+                drop(o);
+            }
+        }
+        return onRoute.size() == trip.size() ? trip : onRoute;
+    }
+
+    private void drop(Order order) {
+        ordersDropped++;
+        log.warn("[DROPPED] {} for Table {}: no robot can get it there", order.dish(), order.tableNumber());
+    }
+
+    private void send(Robot robot, List<Order> orders, RouteCache.Route route) {
+        TripPlan trip = planTrip(robot, orders, route, now + LOAD_MS);
+        if (trip == null) {
+            //an unreserved robot would drive straight into the others, better not to send it at all
+            log.warn("[ROBOT {}] No collision-free trip to {}, not sent", robot.id(), route.stops());
+            for (Order o : orders) drop(o);
+            return;
+        }
+        for (int i = 0; i < trip.stops().size(); i++) {
+            schedule(new SimEvent.RobotAtTable(trip.stopArrivalsMs().get(i), robot.id(), trip.stops().get(i)));
+        }
+        schedule(new SimEvent.RobotAtKitchen(trip.freeAtMs(), robot.id()));
+        robot.depart(trip);
+        waitSteps += trip.waits();
+        if (trip.waits() > 0 && log.isInfo()) {
+            log.info("[ROBOT {}] Waits {} steps for other robots: {}", robot.id(), trip.waits(), String.join(" -> ", trip.path()));
+        }
+        for (Listener l : listeners) l.onDispatch(trip);
+    }
+
+    //time the planned route once: around the other robots' reservations, or straight along it for
+    //a lone robot; null if a fleet's robot finds no way around the reservations
+    private TripPlan planTrip(Robot robot, List<Order> orders, RouteCache.Route route, long depart) {
+        if (spaceTime != null && !route.stops().isEmpty()) {
+            SpaceTimePlanner.Plan timed = spaceTime.plan(depart, route.stops());
+            if (timed == null) return null;
+            return new TripPlan(robot.id(), orders, route.stops(), timed.arrivalsMs(),
+                timed.path(), timed.pathTimesMs(), depart, timed.endMs(), timed.waits());
+        }
+        //arrival at every table of the trip, and when the robot passes each node of the path
+        List<Long> arrivals = new ArrayList<>(route.stops().size());
+        String at = planner.kitchenNode();
+        long steps = 0;
+        for (String stop : route.stops()) {
+            steps += planner.distance(at, stop);
+            arrivals.add(depart + steps * MS_PER_STEP);
+            at = stop;
+        }
+        List<String> path = route.path();
+        List<Long> times = new ArrayList<>(path.size());
+        long t = depart;
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) t += (long) planner.distance(path.get(i - 1), path.get(i)) * MS_PER_STEP;
+            times.add(t);
+        }
+        long back = route.stops().isEmpty() ? 0 : route.length();
+        return new TripPlan(robot.id(), orders, route.stops(), arrivals, path, times,
+            depart, depart + back * MS_PER_STEP, 0);
+    }
+}
@@ -1,30 +1,49 @@
 package sim;
 
-import java.util.ArrayDeque;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import java.util.Optional;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.util.Duration;
+import log.Log;
+import log.Logger;
 import model.ChefQueue;
+import model.DynamicRouteTable;
 import model.Dish;
 import model.Graph;
 import model.GraphModel;
-import model.GraphModel.NodeKind;
 import model.Order;
 import model.RobotQueue;
-
+import routing.RouteBenchmark;
+import routing.RoutePlanner;
+import routing.RoutePlanners;
+
+/**
+ * JavaFX front of the simulation. The service itself runs in a headless SimulationCore;
+ * this class builds it from the edited layout, advances it in step with the wall clock once
+ * per frame so the animation can follow, and forwards its events to the UI listeners.
+ *
+ * The core is stepped on one "sim-engine" thread owned by the engine, created on start and
+ * shut down on reset, with at most one step queued at a time. Its events go through an
+ * EventBus that the FX thread drains once per pulse, so listeners are called on the FX thread
+ * in the order things happened, and the queues the UI draws are snapshots taken after every step.
+ */
 public class SimulationEngine {
-    private long simulationStartTime = 0;
-    private long lastEmptyQueueTime = 0;
+    private static final Logger LOG = Log.logger("engine");
+    private static final int FRAME_MS = 50; //how often the core is advanced while the UI is watching
+    public static final double VIRTUAL = Double.POSITIVE_INFINITY; //speed: run the core flat out
 
     public interface OrderListener {
         void onOrderPlaced(int tableId, Dish dish);
@@ -35,14 +54,14 @@ public class SimulationEngine {
         void onSimulationStart();
     }
 
-    //robot dispatcher 
+    //robot dispatcher, robotId is the robot's index in the fleet
     public interface RobotDispatchListener {
-        void onRobotDispatch(List<Order> orders, List<String> route);
+        void onRobotDispatch(TripPlan trip);
     }
 
     //new delivery events listener
     public interface DeliveryListener {
-        void onDelivery(String tableName);
+        void onDelivery(int robotId, String tableName);
     }
     
     //sim complete listener
@@ -50,321 +69,456 @@ public class SimulationEngine {
         void onSimulationComplete();
     }
 
-    private final List<OrderListener> orderListeners = new ArrayList<>();
-    private final List<SimulationStartListener> simulationStartListeners = new ArrayList<>();
-    private final List<RobotDispatchListener> robotDispatchListeners = new ArrayList<>();
-    private final List<DeliveryListener> deliveryListeners = new ArrayList<>();
-    private final List<SimulationCompletionListener> simulationCompletionListeners = new ArrayList<>();
+    //called once per FX frame after that frame's events, to apply what they changed in one go
+    public interface FrameListener {
+        void onFrame();
+    }
+
+    //what the engine tells the UI, in the order it happened
+    public sealed interface UiEvent {}
+    public record SimulationStarted() implements UiEvent {}
+    public record OrderPlaced(int tableId, Dish dish) implements UiEvent {}
+    public record RobotDispatched(TripPlan trip) implements UiEvent {}
+    public record Delivered(int robotId, String tableName) implements UiEvent {}
+    public record SimulationCompleted(long makespanMs) implements UiEvent {}
+    public record Reset() implements UiEvent {}
+
+    private static final int BUS_CAPACITY = 1 << 14; //events the engine may run ahead of the FX thread
+
+    private final EventBus<UiEvent> bus = new EventBus<>(BUS_CAPACITY, Platform::isFxApplicationThread);
+    private final List<FrameListener> frameListeners = new ArrayList<>(); //FX thread only
+    private long frameBudgetNanos = configuredFrameBudgetMs() * 1_000_000L;
+    private final AnimationTimer pulse = new AnimationTimer() { //drains the bus once per FX pulse
+        @Override
+        public void handle(long now) {
+            //events up to the frame budget, whatever is left waits for the next pulse
+            bus.drain(System.nanoTime() + frameBudgetNanos);
+            for (FrameListener l : frameListeners) {
+                l.onFrame();
+            }
+        }
+    };
     
-    private boolean simulationCompleted = false;
-
-    private static SimulationEngine instance;
+    private volatile boolean simulationCompleted = false;
 
     //register a listener for order placement
     public void addOrderListener(OrderListener listener) {
-        orderListeners.add(listener);
+        bus.subscribe(OrderPlaced.class, e -> listener.onOrderPlaced(e.tableId(), e.dish()));
     }
 
     //register a listener for sim start 
     public void addSimulationStartListener(SimulationStartListener listener) {
-        simulationStartListeners.add(listener);
+        bus.subscribe(SimulationStarted.class, e -> listener.onSimulationStart());
     }
 
     //register a listener to receive robot dispatch movements
     public void addRobotDispatchListener(RobotDispatchListener listener) {
-        robotDispatchListeners.add(listener);
+        bus.subscribe(RobotDispatched.class, e -> listener.onRobotDispatch(e.trip()));
     }
 
     //register a listener to receive delivery events
     public void addDeliveryListener(DeliveryListener listener) {
-        deliveryListeners.add(listener);
+        bus.subscribe(Delivered.class, e -> listener.onDelivery(e.robotId(), e.tableName()));
     }
     
     //register a listener for sim complete
     public void addSimulationCompletionListener(SimulationCompletionListener listener) {
-        simulationCompletionListeners.add(listener);
+        bus.subscribe(SimulationCompleted.class, e -> listener.onSimulationComplete());
     }
-    
-    //notification for sim complete
-    private void notifySimulationComplete() {
-        for (SimulationCompletionListener listener : simulationCompletionListeners) {
-            listener.onSimulationComplete();
-        }
+
+    //register a listener called at the end of every frame, on the FX thread
+    public void addFrameListener(FrameListener listener) {
+        frameListeners.add(listener);
     }
 
-    public static SimulationEngine getInstance() {
-        return instance;
+    //how long one frame may spend handing engine events to the UI
+    public void setFrameBudgetMs(long ms) {
+        if (ms < 1) throw new IllegalArgumentException("Frame budget must be at least 1 ms: " + ms);
+        frameBudgetNanos = ms * 1_000_000L;
     }
 
-    private final ChefQueue[] chefs = new ChefQueue[Dish.values().length];
-    private final RobotQueue robotQ = new RobotQueue();
+    public long frameBudgetMs() { return frameBudgetNanos / 1_000_000L; }
+
     private final GraphModel graphModel;
     private Graph simGraph;
-    private final Random random = new Random();
+    private final DynamicRouteTable liveRoutes; //all-pairs table kept up to date while the layout is edited
+    private String routingName = RoutePlanners.configuredName(); //which RoutePlanner robots use
+    private RoutePlanner planner; //shortest paths on simGraph, built once per start
+    private final RouteCache routeCache = new RouteCache(); //planned trips, only valid for the current simGraph
+    private final Random seeds = new Random(); //one seed per service, so a recorded one can be run again
     private final Timeline tickTimeline;
-    private boolean robotBusy = false;
+    private volatile SimulationCore core; //the running service, null before the first start and after a reset
+    private ExecutorService stepper; //the one thread the core runs on, null while no service runs
+    private final AtomicBoolean stepping = new AtomicBoolean(); //a step is queued or running
+    private int robotCount = configuredRobots(); //fleet size, takes effect on the next start
+    private double speed = configuredSpeed(); //simulated seconds per wall second, VIRTUAL = no pacing
+    private SimClock clock = SimClock.real(); //how far the core may run, replaced on every start
+    private volatile long makespanMs; //simulated length of the last finished service
+    private volatile View view; //what the UI draws, replaced after every step
+    private long seed; //of the running service's Random
+    private RunRecorder recorder; //-Dsim.record, null when not recording; used on the engine thread
+    private OrderJournal journal; //-Dsim.journal, null when not tracing
+    private volatile PipelineMetrics pipeline; //queue waits, latencies and robot use of the current service
+
+    //the core's state as of its last step, safe to read on the FX thread
+    private record View(ChefQueue[] chefs, RobotQueue robotQ, long nowMs, int busyRobots) {
+        static View of(SimulationCore core) {
+            ChefQueue[] live = core.chefQueues();
+            ChefQueue[] chefs = new ChefQueue[live.length];
+            for (int i = 0; i < live.length; i++) {
+                chefs[i] = live[i].copy();
+            }
+            return new View(chefs, core.robotQueue().copy(), core.now(), core.busyRobots());
+        }
+
+        static View idle() {
+            ChefQueue[] chefs = new ChefQueue[Dish.values().length];
+            for (int i = 0; i < chefs.length; i++) {
+                chefs[i] = new ChefQueue();
+            }
+            return new View(chefs, new RobotQueue(), 0, 0);
+        }
+    }
 
     public SimulationEngine(GraphModel gm) {
-        instance = this; //set singleton instance
         this.graphModel = gm;
-        //initialize chef queues
-        for (int i = 0; i < chefs.length; i++) {
-            chefs[i] = new ChefQueue();
-        }
-        //setup tick loop for cooking & delivery
-        tickTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> tick()));
+        this.liveRoutes = DynamicRouteTable.attach(gm);
+        this.view = View.idle();
+        //advance the core with the wall clock while the UI is watching
+        tickTimeline = new Timeline(new KeyFrame(Duration.millis(FRAME_MS), e -> tick()));
         tickTimeline.setCycleCount(Timeline.INDEFINITE);
+        bus.subscribe(SimulationCompleted.class, e -> tickTimeline.stop()); //first, before the UI hears of it
+        pulse.start();
     }
 
     //clone the graph from the gridEditor UI
     private void buildSimGraph() {
-        simGraph = new Graph();
-        Map<String, String> idToName = graphModel.nodes().stream()
-            .collect(Collectors.toMap(GraphModel.Node::id, GraphModel.Node::name));
-        for (GraphModel.Edge e : graphModel.edges()) {
-            String src = idToName.get(e.from);
-            String dst = idToName.get(e.to);
-            simGraph.addEdge(src, dst, (int) e.weight);
+        simGraph = Graph.of(graphModel);
+        //the editor already kept the route table up to date, the table planner only copies it
+        planner = RoutePlanners.create(routingName, simGraph, liveRoutes);
+        routeCache.invalidate();
+
+        //-Dsim.routing.benchmark=true compares every planner on this layout
+        if (Boolean.getBoolean("sim.routing.benchmark")) {
+            for (RouteBenchmark.Result r : RouteBenchmark.run(simGraph, 2000, 1)) {
+                LOG.info("[ROUTING] {}", r);
+            }
         }
     }
 
-    //notification for sim start
-    private void notifySimulationStart() {
-        for (SimulationStartListener listener : simulationStartListeners) {
-            listener.onSimulationStart();
-        }
+    //choose the RoutePlanner by name (see RoutePlanners), takes effect on the next start
+    public void setRouting(String name) {
+        this.routingName = RoutePlanners.check(name);
     }
 
-    //notification for robot being dispatched
-    private void notifyRobotDispatched(List<Order> orders, List<String> route) {
-        System.out.println("[DEBUG] Notifying " + robotDispatchListeners.size() + " listeners about dispatch");
-        for (RobotDispatchListener listener : robotDispatchListeners) {
-            listener.onRobotDispatch(orders, route);
-        }
+    //begins the service, paced by the wall clock for the UI
+    public void startSimulation() {
+        stopStepper(); //a restart drops the old service first
+        buildSimGraph();
+        //-Dsim.replay=<file> runs a recorded service again first, flat out, and reports on it
+        String replayFile = System.getProperty("sim.replay");
+        if (replayFile != null) replayAndReport(Path.of(replayFile));
+        simulationCompleted = false;
+        seed = Long.getLong("sim.seed", seeds.nextLong());
+        SimulationCore started = newCore(seed);
+        startRecording(started);
+        pipeline = PipelineMetrics.attach(started, new Metrics());
+        started.addListener(forwarder(started));
+        started.scheduleTableOrders();
+        core = started;
+        view = View.of(started);
+        stepper = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "sim-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        boolean paused = isPaused();
+        clock = newClock(0);
+        if (paused) pause(); //a paused UI stays paused for the new service
+        bus.publish(new SimulationStarted());
+        tickTimeline.play();
     }
 
-    //notification for delivery success
-    public void notifyDelivery(String tableName) {
-        for (DeliveryListener listener : deliveryListeners) {
-            listener.onDelivery(tableName);
+    //run one whole service on the current layout without the UI, as fast as possible;
+    //returns the makespan in simulated ms
+    public long runHeadless() {
+        //its own graph, planner and cache: a live service may still be running on the engine's
+        Graph graph = Graph.of(graphModel);
+        SimulationCore headless = new SimulationCore(graphModel, RoutePlanners.create(routingName, graph, liveRoutes),
+            new RouteCache(), new Random(seeds.nextLong()), robotCount);
+        headless.setLogging(false); //batch run, nobody reads the console
+        headless.scheduleTableOrders();
+        return headless.run();
+    }
+
+    //batch runner over a copy of the current layout; build it on the FX thread, run it anywhere
+    public MonteCarloRunner monteCarloRunner() {
+        Graph graph = Graph.of(graphModel); //not simGraph, that one belongs to the live service
+        graph.compact(); //shared read-only by the worker threads, build the snapshot once up front
+        String name = routingName;
+        return new MonteCarloRunner(graphModel, () -> RoutePlanners.create(name, graph, null), robotCount);
+    }
+
+    private SimulationCore newCore(long seed) {
+        return new SimulationCore(graphModel, planner, routeCache, new Random(seed), robotCount);
+    }
+
+    //-Dsim.record=<file> logs the seed, every order placed by hand and every dispatch (see RunLog)
+    //-Dsim.journal=<dir> traces every order's life to memory-mapped segments (see OrderJournal)
+    private void startRecording(SimulationCore core) {
+        String file = System.getProperty("sim.record");
+        if (file != null) {
+            try {
+                recorder = RunRecorder.attach(Path.of(file), core, graphModel, seed);
+                LOG.info("[RECORD] Recording to {} with seed {}", file, seed);
+            } catch (IOException e) {
+                LOG.error("[RECORD] Cannot record to {}: {}", file, e.getMessage());
+            }
+        }
+        String dir = System.getProperty("sim.journal");
+        if (dir != null) {
+            try {
+                journal = OrderJournal.attach(Path.of(dir), core);
+            } catch (IOException e) {
+                LOG.error("[JOURNAL] Cannot write to {}: {}", dir, e.getMessage());
+            }
         }
     }
 
-    //notification for robot movement completed
-    public void notifyRobotMovementComplete() {
-        robotBusy = false;
+    private void stopRecording() {
+        close(recorder);
+        close(journal);
+        recorder = null;
+        journal = null;
     }
 
-    //begins the cooking loop
-    public void startSimulation() {
-        buildSimGraph();
-        simulationCompleted = false;
-        simulationStartTime = System.currentTimeMillis();
-        lastEmptyQueueTime = 0;
-        scheduleTableOrders();
-        notifySimulationStart();
-        tickTimeline.play();
+    private static void close(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException e) {
+            LOG.error("[RECORD] {}", e.getMessage());
+        }
     }
 
-    private String getTableNodeName(int tableNumber) {
-        return graphModel.nodes().stream()
-            .filter(n -> {
-                Optional<GraphModel.NodeInfo> info = graphModel.getNodeInfo(n.id());
-                return info.isPresent()
-                    && info.get().kind == GraphModel.NodeKind.TABLE
-                    && info.get().number == tableNumber;
-            })
-            .findFirst()
-            .map(GraphModel.Node::name)
-            .orElse("T?");  //fallback case
-    }
-
-    //randomize orders per table based on n-1 and n+3 rule
-    private void scheduleTableOrders() {
-        Map<String, Integer> ordersMap = new HashMap<>();
-        for (GraphModel.Node node : graphModel.nodes()) {
-            if (node.type().seats > 0) { //only actual tables
-                int T = node.type().seats;
-                int min = Math.max(1, T - 1);
-                int max = T + 3;
-                int total = random.nextInt(max - min + 1) + min;
-                ordersMap.put(node.id(), total);
-            }
-        }
-        for (var entry : ordersMap.entrySet()) {
-            String tableId = entry.getKey();
-            int remaining = entry.getValue();
-            while (remaining > 0) {
-                int batch = random.nextInt(Math.min(3, remaining)) + 1;
-                double cooldown = 1 + random.nextDouble() * 4; //seconds
-                scheduleOrderBatch(tableId, batch, cooldown);
-                remaining -= batch;
+    //run a recorded service again on the current layout; -Dsim.replay.batching picks another policy
+    public Replay.Result replay(Path file) throws IOException {
+        return replay(RunLog.read(file));
+    }
+
+    //on a planner of its own, the live service keeps its graph, planner and route cache
+    private Replay.Result replay(RunLog log) {
+        String batching = System.getProperty("sim.replay.batching", log.header().batching());
+        RoutePlanner replayPlanner = RoutePlanners.create(routingName, Graph.of(graphModel), liveRoutes);
+        return Replay.run(log, graphModel, replayPlanner, batching);
+    }
+
+    private void replayAndReport(Path file) {
+        try {
+            long start = System.nanoTime();
+            RunLog log = RunLog.read(file);
+            Replay.Result r = replay(log);
+            long tookMs = (System.nanoTime() - start) / 1_000_000;
+            if (!r.sameLayout()) LOG.warn("[REPLAY] Warning: the layout differs from the recorded one");
+            LOG.info("[REPLAY] {}: makespan {} ms, recorded {}", file, r.makespanMs(),
+                log.endMs() + " ms, " + r.dispatches().size() + " dispatches, replayed in " + tookMs + " ms");
+            if (r.matches(log)) {
+                LOG.info("[REPLAY] Every dispatch as recorded");
+            } else if (r.divergence() >= 0) {
+                LOG.info("[REPLAY] First different dispatch #{}: {} instead of {}", r.divergence(),
+                    r.dispatches().get(r.divergence()), log.dispatches().get(r.divergence()));
+            } else {
+                LOG.info("[REPLAY] {} dispatches instead of {}", r.dispatches().size(), log.dispatches().size());
             }
+        } catch (IOException e) {
+            LOG.error("[REPLAY] Cannot replay {}: {}", file, e.getMessage());
         }
     }
 
-    //Schedules a batch of orders for a table after a delay.
-    private void scheduleOrderBatch(String tableId, int batchSize, double delaySec) {
-        Timeline tl = new Timeline(new KeyFrame(Duration.seconds(delaySec), e -> {
-            for (int i = 0; i < batchSize; i++) {
-                Dish d = Dish.values()[random.nextInt(Dish.values().length)];
-                placeOrder(tableId, d);
+    //publishes the events of one core to the bus, nothing once that core is gone
+    private SimulationCore.Listener forwarder(SimulationCore owner) {
+        return new SimulationCore.Listener() {
+            private void post(UiEvent e) {
+                if (core == owner) bus.publish(e);
+            }
+
+            @Override
+            public void onOrderPlaced(Order order) {
+                post(new OrderPlaced(order.tableNumber(), order.dish()));
+            }
+
+            @Override
+            public void onDispatch(TripPlan trip) {
+                post(new RobotDispatched(trip));
+            }
+
+            @Override
+            public void onDelivery(int robot, String tableName) {
+                post(new Delivered(robot, tableName));
             }
-        }));
-        tl.play();
+
+            @Override
+            public void onComplete(long makespan) {
+                //only notify once
+                if (simulationCompleted) return;
+                simulationCompleted = true;
+                makespanMs = makespan;
+                LOG.info("[SIMULATION] All orders served! Simulation complete.");
+                LOG.info("[SIMULATION] Makespan: {} ms", makespan);
+                LOG.info("[ROUTE CACHE] {}", routeCache.toString()); //the cache goes on changing, format it now
+                //-Dsim.metrics=true prints the pipeline metrics of every finished service
+                PipelineMetrics m = pipeline;
+                if (m != null && Boolean.getBoolean("sim.metrics")) LOG.info("[METRICS]\n{}", m.report().stripTrailing());
+                post(new SimulationCompleted(makespan));
+            }
+        };
     }
 
-    //place orders in chef queue
+    //place an order for a table right now (ignored while no service is running)
     public void placeOrder(String tableId, Dish d) {
-        //lookup the NodeInfo to get the real table index
-        Optional<GraphModel.NodeInfo> info = graphModel.getNodeInfo(tableId);
-
-        //only enqueue real TABLE nodes
-        if (info.isPresent() && info.get().kind == NodeKind.TABLE) {
-            int tableNum = info.get().number;  // <-- the correct "1", "2", "3", etc.
-            Order order = new Order(tableNum, d, System.currentTimeMillis());
-            chefs[d.ordinal()].enqueue(order);
-
-            //console log for debugging
-            System.out.println("[ORDER] Table " + tableNum + " → " + d.name());
-            for (OrderListener l : orderListeners) {
-                l.onOrderPlaced(tableNum, d);
-            }
-        }
+        SimulationCore c = core;
+        if (c == null) return;
+        submit(() -> {
+            if (recorder != null) recorder.order(tableId, d);
+            c.placeOrder(tableId, d);
+            view = View.of(c);
+        });
     }
 
-    //get the kicthen node name
-    private String getKitchenNodeName() {
-        String kId = graphModel.kitchenId().orElseThrow();
-        return graphModel.nodes().stream()
-            .filter(n -> n.id().equals(kId))
-            .findFirst()
-            .map(GraphModel.Node::name)
-            .orElse("K");
+    //move the core up to the clock on the engine thread; skipped while the last step still runs,
+    //so a slow step never piles up work behind it
+    private void tick() {
+        SimulationCore c = core;
+        if (c == null || !stepping.compareAndSet(false, true)) return;
+        SimClock target = clock;
+        long until = target.nowMs();
+        boolean queued = submit(() -> {
+            try {
+                if (target instanceof VirtualClock virtual) {
+                    c.run();
+                    virtual.advanceTo(c.now());
+                } else {
+                    c.runUntil(until);
+                }
+                view = View.of(c);
+            } finally {
+                stepping.set(false);
+            }
+        });
+        if (!queued) stepping.set(false);
     }
-    
-    //check if the robot stops moving and all orders are completed
-    private boolean isAllComplete() {
-        //only considers the sim as completed once the sim has been running for 10 seconds
-        if (System.currentTimeMillis() - simulationStartTime < 10000) {
-            return false;
-        }
-        
-        //check if robot queue is empty
-        if (!robotQ.getQueue().isEmpty()) {
-            return false;
+
+    private boolean submit(Runnable step) {
+        ExecutorService s = stepper;
+        if (s == null || s.isShutdown()) return false;
+        try {
+            s.execute(step);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; //reset raced us
         }
-        
-        //check if all chef queues are empty
-        for (ChefQueue cq : chefs) {
-            if (!cq.getQueueReadonly().isEmpty()) {
-                return false;
+    }
+
+    //stop the engine thread and wait for the step it is in to finish
+    private void stopStepper() {
+        ExecutorService s = stepper;
+        stepper = null;
+        if (s == null) return;
+        s.shutdownNow();
+        try {
+            if (!s.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOG.warn("[SIM] Engine thread did not stop in time");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        
-        //check if robot is idle
-        if (robotBusy) {
-            return false;
-        }
-        
-        //add delay after robot is idle to ensure everything completed
-        if (lastEmptyQueueTime == 0) {
-            lastEmptyQueueTime = System.currentTimeMillis();
-            return false;
-        } else {
-            //wait at least 2 seconds after all queues are empty
-            if (System.currentTimeMillis() - lastEmptyQueueTime > 2000) {
-                return true;
-            }
-            return false;
+        stepping.set(false);
+        stopRecording(); //the engine thread is done with it
+    }
+
+    //-Dsim.speed=<factor> or -Dsim.speed=virtual, real time by default
+    private static double configuredSpeed() {
+        String value = System.getProperty("sim.speed", "1");
+        if (value.equalsIgnoreCase("virtual")) return VIRTUAL;
+        try {
+            double factor = Double.parseDouble(value);
+            return factor > 0 ? factor : 1;
+        } catch (NumberFormatException e) {
+            LOG.warn("[SIM] Bad sim.speed {}, using real time", value);
+            return 1;
         }
     }
 
-    //update cooks and robot dispatcher
-    private void tick() {
-    long now = System.currentTimeMillis();
-
-    //process chefs: move any finished orders into the robot queue
-    for (ChefQueue cq : chefs) {
-        for (Order done : cq.update(now)) {
-            robotQ.add(done);
-            System.out.println("[COOKED] " 
-                + done.dish().name() 
-                + " for Table " 
-                + done.tableNumber());
-        }
+    //-Dsim.ui.frameBudgetMs=<ms>, 8 ms by default: half a 60 Hz frame, the rest is left for drawing
+    private static long configuredFrameBudgetMs() {
+        return Math.max(1, Long.getLong("sim.ui.frameBudgetMs", 8));
+    }
+
+    //-Dsim.robots=<count>, one robot by default
+    private static int configuredRobots() {
+        int count = Integer.getInteger("sim.robots", 1);
+        return Math.max(1, count);
     }
 
-    //dispatch robot if it's free and there are ready dishes
-    if (!robotBusy && !robotQ.getQueue().isEmpty()) {
-        List<Order> trip = robotQ.dispatch(3);
+    //fleet size for the next start and batch run
+    public void setRobotCount(int count) {
+        if (count < 1) throw new IllegalArgumentException("Need at least one robot: " + count);
+        this.robotCount = count;
+    }
+
+    public int robotCount() { return robotCount; }
 
-        //console log for debugging
-        System.out.println("[DEBUG] Dispatching " + trip.size() + " orders for robot");
-        for (Order o : trip) {
-            System.out.println("[DEBUG] Order: " + o.dish().name() + " for " + getTableNodeName(o.tableNumber()));
+    private SimClock newClock(long startMs) {
+        if (speed == VIRTUAL) {
+            VirtualClock v = SimClock.virtual();
+            v.startAt(startMs);
+            return v;
+        }
+        ScaledClock c = SimClock.scaled(speed);
+        c.startAt(startMs);
+        return c;
+    }
+
+    //change the speed, also while a service is running: 1 = real time, 2..1000 = faster, VIRTUAL = flat out
+    public void setSpeed(double factor) {
+        if (!(factor > 0)) throw new IllegalArgumentException("Speed must be positive: " + factor);
+        boolean wasPaused = isPaused();
+        speed = factor;
+        if (clock instanceof ScaledClock scaled && factor != VIRTUAL) {
+            scaled.setScale(factor); //keeps the current simulated time
+        } else {
+            clock = newClock(core != null ? core.now() : 0);
+            if (wasPaused) pause();
         }
+    }
 
-        //(food) from (table) console log for debugging
-        String dispatchLog = trip.stream()
-            .map(o -> o.dish().name() 
-                + " from " 
-                + getTableNodeName(o.tableNumber()))
-            .collect(Collectors.joining(", "));
-        System.out.println("[DISPATCH] Robot taking " 
-            + trip.size() 
-            + " orders: " 
-            + dispatchLog);
-
-        //hand off to ServeRobot
-        Queue<Order> tripQueue = new ArrayDeque<>(trip);
-        String kitchenName = getKitchenNodeName();
-
-        //create ServeRobot with reference to this SimulationEngine instance
-        ServeRobot robot = new ServeRobot(
-            simGraph,
-            graphModel,
-            kitchenName,
-            tripQueue,
-            this  //pass the current SimulationEngine instance
-        );
-
-        //get the route first
-        List<String> route = robot.calculateRoute();
-        
-        //notify listeners about the dispatch with the route
-        notifyRobotDispatched(new ArrayList<>(trip), route);
-        
-        robotBusy = true;
-        
-        //start serving in a separate thread
-        new Thread(() -> {
-            robot.serve();
-        }).start();
+    public double speed() { return speed; }
+
+    //freeze simulated time; the UI keeps drawing but nothing happens
+    public void pause() {
+        if (clock instanceof ScaledClock scaled) scaled.pause();
     }
-    
-    //Check if all orders are complete - ONLY IF SIMULATION IS ACTUALLY RUNNING
-    //don't check immediately at startup, only after some time has passed
-    //add delay before checking completion
-    if (System.currentTimeMillis() - simulationStartTime > 5000) {
-        if (isAllComplete()) {
-            //only notify once
-            if (!simulationCompleted) {
-                simulationCompleted = true;
-                System.out.println("[SIMULATION] All orders served! Simulation complete.");
-                Platform.runLater(() -> {
-                    notifySimulationComplete();
-                    notifyTabControlListeners(); //added this line
-                });
-            }
-        }
+
+    public void resume() {
+        if (clock instanceof ScaledClock scaled) scaled.resume();
+    }
+
+    public boolean isPaused() {
+        return clock instanceof ScaledClock scaled && scaled.isPaused();
     }
-}
 
-    //UI
-    public ChefQueue[] chefQueues() { return chefs; }
-    public RobotQueue robotQueue() { return robotQ; }
-    public boolean isRobotBusy() { return robotBusy; }
+    public SimClock clock() { return clock; }
+    public long makespanMs() { return makespanMs; }
+
+    //UI, as of the last step
+    public ChefQueue[] chefQueues() { return view.chefs(); }
+    public RobotQueue robotQueue() { return view.robotQ(); }
+    public boolean isRobotBusy() { return view.busyRobots() > 0; }
+    public int busyRobots() { return view.busyRobots(); }
+    public int fleetSize() { SimulationCore c = core; return c != null ? c.fleet().size() : robotCount; } //robots of the running service
+    public long now() { return view.nowMs(); } //simulated ms since the start
+    public RouteCache routeCache() { return routeCache; }
+    public PipelineMetrics pipelineMetrics() { return pipeline; } //null before the first start
 
     //receive components from the gridEditor UI
     public GraphModel getGraphModel() {
@@ -376,47 +530,19 @@ public class SimulationEngine {
         void onSimulationComplete();
     }
 
-    private final List<TabControlListener> tabControlListeners = new ArrayList<>();
-
     public void addTabControlListener(TabControlListener listener) {
-        tabControlListeners.add(listener);
+        bus.subscribe(SimulationCompleted.class, e -> listener.onSimulationComplete());
     }
 
-    private void notifyTabControlListeners() {
-        for (TabControlListener listener : tabControlListeners) {
-            listener.onSimulationComplete();
-        }
-    }
-
-
-    //notification for reset
-    private void notifyReset() {
-        Platform.runLater(() -> {
-            for (OrderListener listener : orderListeners) {
-                if (listener instanceof ResetListener) {
-                    ((ResetListener) listener).onReset();
-                }
-            }
-        });
-    }
 
     //listener for reset
     public interface ResetListener {
         void onReset();
     }
 
-    private final List<ResetListener> resetListeners = new ArrayList<>();
-
     //register reset listener
     public void addResetListener(ResetListener listener) {
-        resetListeners.add(listener);
-    }
-
-    //notification for rest
-    private void notifyResetListeners() {
-        for (ResetListener listener : resetListeners) {
-            listener.onReset();
-        }
+        bus.subscribe(Reset.class, e -> listener.onReset());
     }
 
     //reset the sim state
@@ -424,27 +550,24 @@ public class SimulationEngine {
         //stop the timeline if it's running
         tickTimeline.stop();
         
-        //reset all chef queues
-        for (ChefQueue cq : chefs) {
-            cq.clear();
-        }
-        
-        //clear the robot queue
-        robotQ.clear();
-        
-        //reset the robot busy state
-        robotBusy = false;
+        //stop the engine thread, then drop the running service with its queues and robots
+        stopStepper();
+        core = null;
+        view = View.idle();
         
         //reset simulation completion flag
         simulationCompleted = false;
         
-        //clear any stored timestamps
-        simulationStartTime = 0;
-        lastEmptyQueueTime = 0;
-        
-        //notify listeners about reset
-        Platform.runLater(() -> {
-            notifyResetListeners();
-        });
+        //drop what the old service still had to say, then notify listeners about reset
+        bus.clear();
+        bus.publish(new Reset());
+    }
+
+    //the application is closing: stop the service and the pulse, stop following the layout
+    public void shutdown() {
+        tickTimeline.stop();
+        stopStepper();
+        pulse.stop();
+        liveRoutes.detach();
     }
 }
\ No newline at end of file
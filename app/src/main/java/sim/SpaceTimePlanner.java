@@ -0,0 +1,227 @@
+package sim;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntBiFunction;
+
+import model.GraphModel;
+
+/**
+ * Cooperative space-time routing for a fleet sharing single-lane corridors.
+ *
+ * A trip (kitchen -> its tables in the given order -> kitchen) is planned with A* over
+ * (node, next table, time step): every step the robot either walks on along an edge, cell by
+ * cell, or waits where it stands. Cells another robot has reserved in the ReservationTable
+ * for that time are off limits, and so is swapping places with a robot coming the other way.
+ * The found plan is reserved in turn, so robots planned later route around it. Plain
+ * shortest-path distances are the heuristic, which keeps A* optimal: a robot only waits or
+ * detours when it must.
+ *
+ * The kitchen is never reserved, so waiting there is always possible and a plan always
+ * exists once the reservations ahead have run out.
+ */
+public class SpaceTimePlanner {
+    private static final int MAX_EXPANSIONS = 50_000; //search budget per trip before falling back
+
+    //a planned trip: the node sequence with one repeat per step waited and when the robot is at
+    //each of them, when each table is reached
+    public record Plan(List<String> path, List<Long> pathTimesMs, List<Long> arrivalsMs,
+                       long departMs, long endMs, int waits) {
+        public Plan {
+            path = List.copyOf(path);
+            pathTimesMs = List.copyOf(pathTimesMs);
+            arrivalsMs = List.copyOf(arrivalsMs);
+        }
+
+        //grid steps from departure to the kitchen, waits included
+        public long steps() {
+            return (endMs - departMs) / SimulationCore.MS_PER_STEP;
+        }
+    }
+
+    //an edge walked in one direction: cells in walking order, the last one is the destination node
+    private record Arc(String to, long[] cells) {}
+
+    private record Key(String node, int leg, int step) {}
+
+    private static final class State {
+        final String node;
+        final int leg;    //index of the next table to reach, stops.size() = heading home
+        final int step;   //grid steps since departure
+        final Arc via;    //edge walked into this state, null for waiting (or the start)
+        final State parent;
+        final long f;
+
+        State(String node, int leg, int step, Arc via, State parent, long h) {
+            this.node = node;
+            this.leg = leg;
+            this.step = step;
+            this.via = via;
+            this.parent = parent;
+            this.f = step + h;
+        }
+    }
+
+    private final Map<String, List<Arc>> arcs = new HashMap<>();
+    private final Map<String, Long> nodeCells = new HashMap<>();
+    private final ReservationTable reservations;
+    private final ToIntBiFunction<String, String> distance;
+    private final String kitchen;
+
+    //distance is the plain shortest-path length in grid steps, used as the A* heuristic
+    public SpaceTimePlanner(GraphModel graphModel, ReservationTable reservations,
+                            ToIntBiFunction<String, String> distance, String kitchen) {
+        this.reservations = reservations;
+        this.distance = distance;
+        this.kitchen = kitchen;
+        for (GraphModel.Node n : graphModel.nodes()) {
+            nodeCells.put(n.name(), ReservationTable.cell(n.col(), n.row()));
+        }
+        for (GraphModel.Edge e : graphModel.edges()) {
+            String from = graphModel.nameOf(e.from);
+            String to = graphModel.nameOf(e.to);
+            List<Point> forward = e.cells;
+            List<Point> backward = new ArrayList<>(e.cells);
+            Collections.reverse(backward);
+            arcs.computeIfAbsent(from, k -> new ArrayList<>()).add(new Arc(to, walk(forward, to)));
+            arcs.computeIfAbsent(to, k -> new ArrayList<>()).add(new Arc(from, walk(backward, from)));
+        }
+    }
+
+    private long[] walk(List<Point> cells, String dest) {
+        long[] walk = new long[cells.size() + 1];
+        for (int i = 0; i < cells.size(); i++) {
+            walk[i] = ReservationTable.cell(cells.get(i).x, cells.get(i).y);
+        }
+        walk[cells.size()] = nodeCells.get(dest);
+        return walk;
+    }
+
+    //plan and reserve the trip leaving the kitchen at departMs, null if a table cannot be reached
+    public Plan plan(long departMs, List<String> stops) {
+        reservations.release(departMs); //nothing planned from now on can run into the past
+        Plan plan = search(departMs, stops, MAX_EXPANSIONS);
+        if (plan == null) {
+            //out of budget: wait at the kitchen until every reservation has run out, then nothing is in the way
+            long behind = Math.max(0, reservations.horizonMs() - departMs);
+            int waited = (int) ((behind + SimulationCore.MS_PER_STEP - 1) / SimulationCore.MS_PER_STEP);
+            Plan late = search(departMs + (long) waited * SimulationCore.MS_PER_STEP, stops, MAX_EXPANSIONS);
+            if (late == null) return null;
+            List<String> path = new ArrayList<>(Collections.nCopies(waited, kitchen));
+            List<Long> times = new ArrayList<>();
+            for (int i = 0; i < waited; i++) {
+                times.add(at(departMs, i));
+            }
+            path.addAll(late.path());
+            times.addAll(late.pathTimesMs());
+            plan = new Plan(path, times, late.arrivalsMs(), departMs, late.endMs(), late.waits() + waited);
+        }
+        return plan;
+    }
+
+    private Plan search(long departMs, List<String> stops, int budget) {
+        long[] suffix = new long[stops.size() + 1]; //steps from table i over the later tables back home
+        suffix[stops.size()] = 0;
+        for (int i = stops.size() - 1; i >= 0; i--) {
+            String next = i + 1 < stops.size() ? stops.get(i + 1) : kitchen;
+            suffix[i] = suffix[i + 1] + distance.applyAsInt(stops.get(i), next);
+        }
+
+        PriorityQueue<State> open = new PriorityQueue<>((a, b) ->
+            a.f != b.f ? Long.compare(a.f, b.f) : Integer.compare(b.step, a.step));
+        Set<Key> closed = new HashSet<>();
+        open.add(new State(kitchen, 0, 0, null, null, heuristic(kitchen, 0, stops, suffix)));
+        int expanded = 0;
+        while (!open.isEmpty() && expanded++ < budget) {
+            State s = open.poll();
+            if (!closed.add(new Key(s.node, s.leg, s.step))) continue;
+            if (s.leg == stops.size() && s.node.equals(kitchen) && s.parent != null) {
+                return reserve(s, departMs);
+            }
+            //wait one step where we are
+            if (reservations.isFree(cell(s.node), at(departMs, s.step + 1), at(departMs, s.step + 2))) {
+                open.add(new State(s.node, s.leg, s.step + 1, null, s, heuristic(s.node, s.leg, stops, suffix)));
+            }
+            //or walk an edge, every cell of it has to be free when we get there
+            for (Arc arc : arcs.getOrDefault(s.node, List.of())) {
+                if (canWalk(s, arc, departMs)) {
+                    int leg = s.leg < stops.size() && stops.get(s.leg).equals(arc.to()) ? s.leg + 1 : s.leg;
+                    int step = s.step + arc.cells().length;
+                    open.add(new State(arc.to(), leg, step, arc, s, heuristic(arc.to(), leg, stops, suffix)));
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean canWalk(State s, Arc arc, long departMs) {
+        long prev = cell(s.node);
+        for (int i = 0; i < arc.cells().length; i++) {
+            long c = arc.cells()[i];
+            int step = s.step + i + 1;
+            if (!reservations.isFree(c, at(departMs, step), at(departMs, step + 1))) return false;
+            if (!reservations.canMove(prev, c, at(departMs, step))) return false;
+            prev = c;
+        }
+        return true;
+    }
+
+    private long heuristic(String node, int leg, List<String> stops, long[] suffix) {
+        if (leg == stops.size()) return distance.applyAsInt(node, kitchen);
+        return distance.applyAsInt(node, stops.get(leg)) + suffix[leg];
+    }
+
+    //walk back from the goal, reserving every cell the robot will hold
+    private Plan reserve(State goal, long departMs) {
+        List<State> states = new ArrayList<>();
+        for (State s = goal; s != null; s = s.parent) {
+            states.add(s);
+        }
+        Collections.reverse(states);
+
+        List<String> path = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        List<Long> arrivals = new ArrayList<>();
+        int waits = 0;
+        path.add(states.get(0).node);
+        times.add(departMs);
+        for (int i = 1; i < states.size(); i++) {
+            State parent = states.get(i - 1);
+            State s = states.get(i);
+            path.add(s.node);
+            times.add(at(departMs, s.step));
+            if (s.via == null) {
+                waits++;
+                reservations.reserve(cell(s.node), at(departMs, s.step), at(departMs, s.step + 1));
+            } else {
+                long prev = cell(parent.node);
+                for (int j = 0; j < s.via.cells().length; j++) {
+                    long c = s.via.cells()[j];
+                    int step = parent.step + j + 1;
+                    reservations.reserve(c, at(departMs, step), at(departMs, step + 1));
+                    reservations.reserveMove(prev, c, at(departMs, step));
+                    prev = c;
+                }
+            }
+            if (s.leg > parent.leg) {
+                arrivals.add(at(departMs, s.step));
+            }
+        }
+        return new Plan(path, times, arrivals, departMs, at(departMs, goal.step), waits);
+    }
+
+    private long cell(String node) {
+        return nodeCells.get(node);
+    }
+
+    private static long at(long departMs, int step) {
+        return departMs + (long) step * SimulationCore.MS_PER_STEP;
+    }
+}
@@ -0,0 +1,134 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntBiFunction;
+
+import model.Order;
+
+/**
+ * Batches ready orders whose tables lie close together. Starting from every table with food
+ * waiting, the batch grows greedily by the table that adds the fewest grid steps per order to
+ * the round trip (another order for a table already on the trip costs nothing); the batch that
+ * delivers the most orders per step of its shortest round trip wins.
+ *
+ * An order that was placed maxWaitMs or longer ago is always taken first, oldest first, so a
+ * table far off the usual trips does not starve.
+ */
+public class SpatialBatching implements BatchingPolicy {
+    private final ToIntBiFunction<String, String> distance; //network distance in grid steps
+    private final IntFunction<String> tableName;           //table number -> node name
+    private final String kitchen;
+    private final long maxWaitMs;
+
+    public SpatialBatching(ToIntBiFunction<String, String> distance, IntFunction<String> tableName,
+                           String kitchen, long maxWaitMs) {
+        this.distance = distance;
+        this.tableName = tableName;
+        this.kitchen = kitchen;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @Override
+    public List<Order> pick(List<Order> ready, int capacity, long nowMs) {
+        //everything fits: no reason to hold food back
+        if (ready.size() <= capacity) return List.copyOf(ready);
+
+        //ready orders per table, oldest first
+        Map<String, List<Order>> byTable = new LinkedHashMap<>();
+        for (Order o : ready) {
+            byTable.computeIfAbsent(tableName.apply(o.tableNumber()), t -> new ArrayList<>()).add(o);
+        }
+
+        //overdue orders go first, the rest of the trip is filled around them
+        List<Order> overdue = new ArrayList<>();
+        for (Order o : ready) {
+            if (overdue.size() < capacity && nowMs - o.placedAtMs() >= maxWaitMs) overdue.add(o);
+        }
+        if (!overdue.isEmpty()) {
+            return grow(overdue, byTable, capacity).orders;
+        }
+
+        Batch best = null;
+        for (List<Order> seed : byTable.values()) {
+            Batch b = grow(seed.subList(0, Math.min(capacity, seed.size())), byTable, capacity);
+            if (best == null || b.score() > best.score()) best = b; //ties keep the older seed
+        }
+        return best.orders;
+    }
+
+    private record Batch(List<Order> orders, long steps) {
+        double score() {
+            return (double) orders.size() / Math.max(1, steps);
+        }
+    }
+
+    //add the cheapest table per order until the robot is full or nothing is left
+    private Batch grow(List<Order> start, Map<String, List<Order>> byTable, int capacity) {
+        List<Order> orders = new ArrayList<>(start);
+        Set<String> tables = new HashSet<>();
+        for (Order o : start) tables.add(tableName.apply(o.tableNumber()));
+        long steps = tourSteps(tables);
+
+        //free riders: more food for tables already on the trip. Orders are records, so two
+        //identical ones for the same table are equal: track what is on the trip by identity
+        Set<Order> picked = Collections.newSetFromMap(new IdentityHashMap<>());
+        picked.addAll(start);
+        for (String t : tables) {
+            for (Order o : byTable.get(t)) {
+                if (orders.size() >= capacity) break;
+                if (picked.add(o)) orders.add(o);
+            }
+        }
+
+        while (orders.size() < capacity) {
+            String bestTable = null;
+            double bestCost = Double.MAX_VALUE;
+            long bestSteps = steps;
+            for (Map.Entry<String, List<Order>> e : byTable.entrySet()) {
+                if (tables.contains(e.getKey())) continue;
+                tables.add(e.getKey());
+                long withIt = tourSteps(tables);
+                tables.remove(e.getKey());
+                int served = Math.min(e.getValue().size(), capacity - orders.size());
+                double cost = (double) (withIt - steps) / served;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestTable = e.getKey();
+                    bestSteps = withIt;
+                }
+            }
+            if (bestTable == null) break;
+            tables.add(bestTable);
+            steps = bestSteps;
+            for (Order o : byTable.get(bestTable)) {
+                if (orders.size() >= capacity) break;
+                orders.add(o);
+            }
+        }
+        return new Batch(orders, steps);
+    }
+
+    //shortest round trip kitchen -> tables -> kitchen
+    private long tourSteps(Set<String> tables) {
+        List<String> stops = new ArrayList<>();
+        stops.add(kitchen);
+        stops.addAll(tables);
+        long[][] dist = new long[stops.size()][stops.size()];
+        for (int i = 0; i < stops.size(); i++) {
+            for (int j = i + 1; j < stops.size(); j++) {
+                int d = distance.applyAsInt(stops.get(i), stops.get(j));
+                dist[i][j] = d;
+                dist[j][i] = d;
+            }
+        }
+        return TripOptimizer.tourLength(dist, TripOptimizer.order(dist));
+    }
+}
@@ -0,0 +1,41 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of a sample of ms values: mean with a 95% confidence interval
+ * (normal approximation, fine for the hundreds or thousands of replications of a batch run)
+ * and nearest-rank percentiles.
+ */
+public record Stats(long count, double mean, double stdDev, double ci95Low, double ci95High,
+                    long min, long p50, long p90, long p95, long p99, long max) {
+
+    public static Stats of(long[] values) {
+        int n = values.length;
+        if (n == 0) return new Stats(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long v : sorted) sum += v;
+        double mean = sum / n;
+        double squares = 0;
+        for (long v : sorted) squares += (v - mean) * (v - mean);
+        double stdDev = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+        double half = 1.96 * stdDev / Math.sqrt(n);
+        return new Stats(n, mean, stdDev, mean - half, mean + half,
+            sorted[0], percentile(sorted, 50), percentile(sorted, 90),
+            percentile(sorted, 95), percentile(sorted, 99), sorted[n - 1]);
+    }
+
+    //nearest-rank percentile of sorted values
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    //one-line summary with the ms values shown as seconds
+    public String inSeconds() {
+        return String.format("mean %.1f (95%% CI %.1f-%.1f), p50 %.1f, p95 %.1f, p99 %.1f, max %.1f",
+            mean / 1000, ci95Low / 1000, ci95High / 1000, p50 / 1000.0, p95 / 1000.0, p99 / 1000.0, max / 1000.0);
+    }
+}
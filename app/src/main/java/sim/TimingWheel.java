@@ -0,0 +1,134 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keyed by ms, used for events that are scheduled far more often
+ * than they are looked at in between (cook completions: one per order, known the moment
+ * cooking starts).
+ *
+ * Level 0 has one slot per ms of the current 64 ms window, every level above covers
+ * 64 times the span of the one below. An item goes to the level of the highest 6-bit group
+ * in which its time differs from the wheel's cursor, so adding is O(1); when the cursor moves
+ * onto a higher-level slot its items are cascaded down. Items with the same time come out in
+ * ascending seq, the order SimulationCore scheduled them in.
+ *
+ * The cursor only moves in poll(), so items may be added for any time at or after the last
+ * polled one.
+ */
+public class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = (Long.SIZE + BITS - 1) / BITS; //enough levels for every long time
+
+    private record Entry<T>(long timeMs, long seq, T item) {}
+
+    //slot s of level l at l * SLOTS + s, null until something lands there
+    private final List<List<Entry<T>>> slots = new ArrayList<>(Collections.nCopies(LEVELS * SLOTS, null));
+    private final long[] occupied = new long[LEVELS]; //bit s set = slot s of the level has entries
+    private long cursorMs;
+    private int size;
+    private Entry<T> next; //cached result of findNext(), null = not known
+
+    public TimingWheel(long startMs) {
+        this.cursorMs = startMs;
+    }
+
+    public void add(long timeMs, long seq, T item) {
+        if (timeMs < cursorMs) {
+            throw new IllegalArgumentException("Time " + timeMs + " is before the wheel at " + cursorMs);
+        }
+        place(new Entry<>(timeMs, seq, item));
+        size++;
+        if (next != null && (timeMs < next.timeMs() || (timeMs == next.timeMs() && seq < next.seq()))) {
+            next = null;
+        }
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+
+    //time of the next item, Long.MAX_VALUE if there is none
+    public long peekTime() {
+        Entry<T> e = findNext();
+        return e == null ? Long.MAX_VALUE : e.timeMs();
+    }
+
+    //seq of the next item, Long.MAX_VALUE if there is none
+    public long peekSeq() {
+        Entry<T> e = findNext();
+        return e == null ? Long.MAX_VALUE : e.seq();
+    }
+
+    //remove and return the next item, null if the wheel is empty
+    public T poll() {
+        Entry<T> e = findNext();
+        if (e == null) return null;
+        advanceTo(e.timeMs());
+        int slot = slotOf(e.timeMs(), 0);
+        List<Entry<T>> due = slots.get(slot);
+        due.remove(e);
+        if (due.isEmpty()) occupied[0] &= ~(1L << slot);
+        size--;
+        next = null;
+        return e.item();
+    }
+
+    private void place(Entry<T> e) {
+        int level = levelOf(e.timeMs());
+        int slot = slotOf(e.timeMs(), level);
+        List<Entry<T>> entries = slots.get(level * SLOTS + slot);
+        if (entries == null) slots.set(level * SLOTS + slot, entries = new ArrayList<>());
+        entries.add(e);
+        occupied[level] |= 1L << slot;
+    }
+
+    //level of the highest 6-bit group in which timeMs differs from the cursor
+    private int levelOf(long timeMs) {
+        long diff = timeMs ^ cursorMs;
+        return diff == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(diff)) / BITS;
+    }
+
+    private static int slotOf(long timeMs, int level) {
+        return (int) ((timeMs >>> (level * BITS)) & (SLOTS - 1));
+    }
+
+    //every item of a level is later than every item of the levels below, and within a level
+    //the first occupied slot after the cursor holds the earliest ones
+    private Entry<T> findNext() {
+        if (next != null || size == 0) return next;
+        for (int level = 0; level < LEVELS; level++) {
+            if (occupied[level] == 0) continue;
+            int from = slotOf(cursorMs, level) + (level == 0 ? 0 : 1);
+            long ahead = from >= SLOTS ? 0 : occupied[level] & (-1L << from);
+            if (ahead == 0) continue;
+            for (Entry<T> e : slots.get(level * SLOTS + Long.numberOfTrailingZeros(ahead))) {
+                if (next == null || e.timeMs() < next.timeMs()
+                        || (e.timeMs() == next.timeMs() && e.seq() < next.seq())) {
+                    next = e;
+                }
+            }
+            return next;
+        }
+        return null;
+    }
+
+    //move the cursor to timeMs (no item is earlier) and cascade the slots it lands on
+    private void advanceTo(long timeMs) {
+        long old = cursorMs;
+        cursorMs = timeMs;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((old >>> (level * BITS)) == (timeMs >>> (level * BITS))) continue; //still in the same slot
+            int slot = slotOf(timeMs, level);
+            List<Entry<T>> cascade = slots.get(level * SLOTS + slot);
+            if (cascade == null || cascade.isEmpty()) continue;
+            slots.set(level * SLOTS + slot, null);
+            occupied[level] &= ~(1L << slot);
+            for (Entry<T> e : cascade) {
+                place(e);
+            }
+        }
+    }
+}
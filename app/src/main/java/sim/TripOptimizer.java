@@ -0,0 +1,129 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Orders the stops of one robot trip so the round trip start -> stops -> start is shortest.
+ * Up to EXACT_LIMIT stops it is solved exactly with the Held-Karp bitmask DP
+ * (O(2^k * k^2)); larger batches use nearest-neighbour followed by 2-opt.
+ */
+public final class TripOptimizer {
+    public static final int EXACT_LIMIT = 13;
+
+    private TripOptimizer() {}
+
+    /**
+     * @param dist (k + 1) x (k + 1) distances, index 0 is the start, 1..k are the stops
+     * @return the stops 1..k in visiting order
+     */
+    public static int[] order(long[][] dist) {
+        int k = dist.length - 1;
+        if (k <= 0) return new int[0];
+        if (k == 1) return new int[] {1};
+        return k <= EXACT_LIMIT ? heldKarp(dist) : twoOpt(dist, nearestNeighbour(dist));
+    }
+
+    //total length of start -> order... -> start
+    public static long tourLength(long[][] dist, int[] order) {
+        long total = 0;
+        int prev = 0;
+        for (int stop : order) {
+            total += dist[prev][stop];
+            prev = stop;
+        }
+        return total + dist[prev][0];
+    }
+
+    //exact: best[mask][j] = shortest path from the start through the stops in mask, ending at stop j
+    static int[] heldKarp(long[][] dist) {
+        int k = dist.length - 1;
+        int full = (1 << k) - 1;
+        long[] best = new long[(full + 1) * k];
+        byte[] parent = new byte[(full + 1) * k];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int j = 0; j < k; j++) {
+            best[(1 << j) * k + j] = dist[0][j + 1];
+            parent[(1 << j) * k + j] = -1;
+        }
+        for (int mask = 1; mask <= full; mask++) {
+            for (int j = 0; j < k; j++) {
+                long cur = best[mask * k + j];
+                if (cur == Long.MAX_VALUE) continue;
+                int rest = full & ~mask;
+                while (rest != 0) {
+                    int next = Integer.numberOfTrailingZeros(rest);
+                    rest &= rest - 1;
+                    int nextMask = mask | (1 << next);
+                    long cand = cur + dist[j + 1][next + 1];
+                    if (cand < best[nextMask * k + next]) {
+                        best[nextMask * k + next] = cand;
+                        parent[nextMask * k + next] = (byte) j;
+                    }
+                }
+            }
+        }
+        int last = 0;
+        long bestTour = Long.MAX_VALUE;
+        for (int j = 0; j < k; j++) {
+            long tour = best[full * k + j] + dist[j + 1][0];
+            if (tour < bestTour) {
+                bestTour = tour;
+                last = j;
+            }
+        }
+        int[] order = new int[k];
+        int mask = full;
+        for (int i = k - 1; i >= 0; i--) {
+            order[i] = last + 1;
+            int p = parent[mask * k + last];
+            mask &= ~(1 << last);
+            last = p;
+        }
+        return order;
+    }
+
+    static int[] nearestNeighbour(long[][] dist) {
+        int k = dist.length - 1;
+        boolean[] visited = new boolean[k + 1];
+        int[] order = new int[k];
+        int current = 0;
+        for (int i = 0; i < k; i++) {
+            int nearest = -1;
+            for (int j = 1; j <= k; j++) {
+                if (!visited[j] && (nearest < 0 || dist[current][j] < dist[current][nearest])) {
+                    nearest = j;
+                }
+            }
+            visited[nearest] = true;
+            order[i] = nearest;
+            current = nearest;
+        }
+        return order;
+    }
+
+    //reverse segments of the closed tour while that makes it shorter
+    static int[] twoOpt(long[][] dist, int[] order) {
+        int k = order.length;
+        int[] tour = new int[k + 2]; //start, stops..., start
+        System.arraycopy(order, 0, tour, 1, k);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < k; i++) {
+                for (int j = i + 1; j <= k; j++) {
+                    long before = dist[tour[i - 1]][tour[i]] + dist[tour[j]][tour[j + 1]];
+                    long after = dist[tour[i - 1]][tour[j]] + dist[tour[i]][tour[j + 1]];
+                    if (after < before) {
+                        for (int a = i, b = j; a < b; a++, b--) {
+                            int t = tour[a];
+                            tour[a] = tour[b];
+                            tour[b] = t;
+                        }
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOfRange(tour, 1, k + 1);
+    }
+}
@@ -0,0 +1,37 @@
+package sim;
+
+import java.util.List;
+
+import model.Order;
+
+/**
+ * One robot trip, planned once when the robot is dispatched and never changed afterwards:
+ * SimulationCore schedules the trip's events from it, the Robot carries it and the UI animates
+ * it, so nobody has to route the same trip again.
+ *
+ * path is every node the robot passes, kitchen to kitchen, with pathTimesMs the simulated time
+ * it is there; a node listed twice in a row is a step spent waiting for another robot.
+ */
+public record TripPlan(int robot, List<Order> orders, List<String> stops, List<Long> stopArrivalsMs,
+                       List<String> path, List<Long> pathTimesMs, long departMs, long returnMs, int waits) {
+    public TripPlan {
+        orders = List.copyOf(orders);
+        stops = List.copyOf(stops);
+        stopArrivalsMs = List.copyOf(stopArrivalsMs);
+        path = List.copyOf(path);
+        pathTimesMs = List.copyOf(pathTimesMs);
+        if (stops.size() != stopArrivalsMs.size() || path.size() != pathTimesMs.size()) {
+            throw new IllegalArgumentException("Every stop and every node of the path needs a time");
+        }
+    }
+
+    //back at the kitchen and unloaded, ready for the next trip
+    public long freeAtMs() {
+        return returnMs + SimulationCore.UNLOAD_MS;
+    }
+
+    //grid steps from departure back to the kitchen, waits included
+    public long steps() {
+        return (returnMs - departMs) / SimulationCore.MS_PER_STEP;
+    }
+}
@@ -0,0 +1,21 @@
+package sim;
+
+/**
+ * Simulated time that only moves when told to. The engine runs the core as fast as
+ * it can and moves this clock to the core's time afterwards.
+ */
+public class VirtualClock implements SimClock {
+    private volatile long nowMs;
+
+    @Override
+    public long nowMs() { return nowMs; }
+
+    //move forward to timeMs, never backwards
+    public void advanceTo(long timeMs) {
+        if (timeMs > nowMs) nowMs = timeMs;
+    }
+
+    public void startAt(long simulatedMs) {
+        nowMs = simulatedMs;
+    }
+}
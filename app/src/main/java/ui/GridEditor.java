@@ -28,6 +28,8 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Line;
 import javafx.scene.text.Text;
+import log.Log;
+import log.Logger;
 import model.GraphModel;
 import model.Graph;
 import model.GraphModel.NodeInfo;
@@ -43,6 +45,7 @@ import sim.SimulationEngine;
  */
 
 public class GridEditor extends HBox {
+    private static final Logger LOG = Log.logger("ui");
     private static final int CELLS = 8, CELL_SIZE = 60;
     private enum CellState { EMPTY, TABLE, PATH }
     private final CellState[][] gridState = new CellState[CELLS][CELLS];
@@ -122,11 +125,7 @@ public class GridEditor extends HBox {
     //clear all elements
     private void resetAll() {
         //clear model data
-        graph.nodes().clear();
-        graph.edges().clear();
-        graph.tableIds().clear();
-        graph.junctionIds().clear();
-        graph.setKitchenId(null); 
+        graph.clear();
 
         if (sim != null) {
             sim.resetState();
@@ -380,7 +379,7 @@ public class GridEditor extends HBox {
         GraphModel.Node existing=findNode(c,r);
         GraphModel.Node mid=existing!=null?existing:graph.addNode(jx,jy,currentTable);
         if(existing==null){
-            graph.junctionIds().put(mid.id(),nextJunctionNumber);
+            graph.setJunctionNumber(mid.id(),nextJunctionNumber);
             Circle jc = new Circle(jx,jy,CELL_SIZE*0.25,Color.web(currentTable.colorHex));
             jc.setStroke(Color.BLACK);
             nodeShapes.put(mid,jc);
@@ -423,8 +422,8 @@ public class GridEditor extends HBox {
 
     private void refreshEdges() { //update the edge list table
         var rows = graph.edges().stream().map(e -> {
-            String sa = graph.nodes().stream().filter(n->n.id().equals(e.from)).findFirst().get().name();
-            String sb = graph.nodes().stream().filter(n->n.id().equals(e.to)).findFirst().get().name();
+            String sa = graph.nameOf(e.from);
+            String sb = graph.nameOf(e.to);
             return new EdgeRow(sa+" <-> "+sb, e.weight+1);
         }).toList();
         edgeTable.setItems(FXCollections.observableArrayList(rows));
@@ -464,18 +463,13 @@ public class GridEditor extends HBox {
             errorMessages.append("ERROR: Kitchen node (K) not found! Please add a Kitchen to your layout.\n");
             isCompleted = false;
         } else {
-            String kitchenName = graph.nodes().stream()
-                .filter(n -> n.id().equals(kitchenId.get()))
-                .findFirst()
+            String kitchenName = graph.findNode(kitchenId.get())
                 .map(GraphModel.Node::name)
                 .orElse("K");
                 
             //check each table for accessibility from kitchen
             for (String tableId : graph.tableIds().keySet()) {
-                GraphModel.Node tableNode = graph.nodes().stream()
-                    .filter(n -> n.id().equals(tableId))
-                    .findFirst()
-                    .orElseThrow();
+                GraphModel.Node tableNode = graph.findNode(tableId).orElseThrow();
                 
                 String displayName = tableNode.name();  //"T4-1", "T2-2", etc.
                 
@@ -495,9 +489,9 @@ public class GridEditor extends HBox {
         if (!isCompleted) {
             //show all error messages in one dialog
             showErrorDialog("Restaurant Layout Error", errorMessages.toString());
-            System.out.println(errorMessages.toString());
+            LOG.warn(errorMessages.toString().stripTrailing());
         } else {
-            System.out.println("Graph created successfully! Begin simulation...");
+            LOG.info("Graph created successfully! Begin simulation...");
         }
         
         return isCompleted;
@@ -516,16 +510,8 @@ public class GridEditor extends HBox {
     }
 
     public boolean validateGraph() {
-        //build simulation graph
-        Graph simGraph = new Graph();
-        for (GraphModel.Edge e: graph.edges()) {
-            String srcNode = graph.nodes().stream().filter(n->n.id().equals(e.from)).findFirst().get().name();
-            String destNode = graph.nodes().stream().filter(n->n.id().equals(e.to)).findFirst().get().name();
-            simGraph.addEdge(srcNode, destNode, (int)e.weight);
-        }
-        
-        //run graph checker and return the result
-        return traversePath(simGraph);
+        //run graph checker on the simulation graph and return the result
+        return traversePath(Graph.of(graph));
     }
     
 
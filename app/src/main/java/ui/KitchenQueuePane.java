@@ -10,7 +10,6 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 import model.GraphModel;
-import model.GraphModel.NodeKind;
 import model.Order;
 import model.Dish;
 import model.ChefQueue;
@@ -31,6 +30,7 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
     private final ListView<String> orderLog = new ListView<>();
     private final TabPane dishTabs = new TabPane();
     private final Label robotStatus = new Label();
+    private final List<String> newOrders = new ArrayList<>(); // ออเดอร์ใหม่ของเฟรมนี้ รอเพิ่มใน orderLog ทีเดียว
 
     /**
      * คลาสข้อมูลสำหรับแต่ละแถวในตารางคิวของแต่ละจาน
@@ -51,12 +51,15 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
         this.graphModel = sim.getGraphModel();
         setSpacing(8);
 
-        // เมื่อมีคำสั่งใหม่ ให้เพิ่มบันทึกเหตุการณ์ใน orderLog
+        // เมื่อมีคำสั่งใหม่ เก็บไว้ก่อน แล้วเพิ่มลง orderLog ครั้งเดียวตอนจบเฟรม
         sim.addOrderListener((tableId, dish) ->
-            Platform.runLater(() ->
-                orderLog.getItems().add("Table " + getNodeName(tableId) + " ordered " + dish.name())
-            )
+            newOrders.add("Table " + getNodeName(tableId) + " ordered " + dish.name())
         );
+        sim.addFrameListener(() -> {
+            if (newOrders.isEmpty()) return;
+            orderLog.getItems().addAll(newOrders);
+            newOrders.clear();
+        });
 
         // สร้างแท็บแยกตามประเภทจานในเมนู
         for (Dish d : Dish.values()) {
@@ -112,17 +115,16 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
      */
     @Override
     public void onReset() {
-        Platform.runLater(() -> {
-            // เคลียร์ orderlog
-            orderLog.getItems().clear();
-            
-            // เคลียร์ตารางคิวในแต่ละแท็บ
-            for (Tab tab : dishTabs.getTabs()) {
-                @SuppressWarnings("unchecked")
-                TableView<DishRow> tv = (TableView<DishRow>) tab.getContent();
-                tv.getItems().clear();
-            }
-        });
+        // เคลียร์ orderlog
+        newOrders.clear();
+        orderLog.getItems().clear();
+        
+        // เคลียร์ตารางคิวในแต่ละแท็บ
+        for (Tab tab : dishTabs.getTabs()) {
+            @SuppressWarnings("unchecked")
+            TableView<DishRow> tv = (TableView<DishRow>) tab.getContent();
+            tv.getItems().clear();
+        }
     }
 
 
@@ -131,7 +133,7 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
      * เรียกทุก 1 วินาทีจาก Timer
      */
     private void refresh() {
-        long now = System.currentTimeMillis();
+        long now = sim.now(); //simulated time, the same clock the chef queues run on
     
         // อัปเดตแต่ละแท็บตามคิวของเชฟและหุ่นยนต์
         for (int i = 0; i < Dish.values().length; i++) {
@@ -142,15 +144,13 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
     
             // คิวของเชฟ พร้อมตัวนับเวลาถอยหลัง
             ChefQueue cq = sim.chefQueues()[i];
-            long remainMs = cq.getFinishTimeMs() - now;
-            long remainSec = remainMs > 0 ? (remainMs + 999) / 1000 : 0;  // round up, clamp at 0
-            int idx = 0;
-            for (Order o : cq.getQueueReadonly()) {
-                String status = (idx == 0)
-                    ? String.valueOf(remainSec)
-                    : "waiting";
-                rows.add(new DishRow(getNodeName(o.tableNumber()), status));
-                idx++;
+            for (ChefQueue.Cooking c : cq.getCookingReadonly()) {
+                long remainMs = c.finishMs() - now;
+                long remainSec = remainMs > 0 ? (remainMs + 999) / 1000 : 0;  // round up, clamp at 0
+                rows.add(new DishRow(getNodeName(c.order().tableNumber()), String.valueOf(remainSec)));
+            }
+            for (Order o : cq.getWaitingReadonly()) {
+                rows.add(new DishRow(getNodeName(o.tableNumber()), "waiting"));
             }
     
             // คิวของหุ่นยนต์ที่พร้อมส่ง
@@ -165,7 +165,12 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
 
         // อัปเดตสถานะของหุ่นยนต์
         robotStatus.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #FFFFFF");
-        robotStatus.setText(sim.isRobotBusy() ? "Robot: BUSY" : "Robot: IDLE");
+        int fleet = sim.fleetSize();
+        if (fleet == 1) {
+            robotStatus.setText(sim.isRobotBusy() ? "Robot: BUSY" : "Robot: IDLE");
+        } else {
+            robotStatus.setText("Robots busy: " + sim.busyRobots() + "/" + fleet);
+        }
     }
     
     /**
@@ -174,14 +179,7 @@ public class KitchenQueuePane extends VBox implements SimulationEngine.ResetList
      * @return ชื่อโหนดที่ใช้งานได้
      */
     private String getNodeName(int tableId) {
-        return graphModel.nodes().stream()
-            .filter(n -> graphModel.getNodeInfo(n.id())
-                .filter(info -> info.kind == NodeKind.TABLE && info.number == tableId)
-                .isPresent()
-            )
-            .findFirst()
-            .map(GraphModel.Node::name)
-            .orElse(String.valueOf(tableId));
+        return graphModel.tableName(tableId, String.valueOf(tableId));
     }
 
     /**
@@ -4,11 +4,10 @@ import javafx.animation.PathTransition;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
 import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -27,9 +26,13 @@ import javafx.scene.shape.LineTo;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 import javafx.util.Callback;
+import log.Level;
+import log.Log;
+import log.Logger;
 import model.GraphModel;
 import model.Order;
 import sim.SimulationEngine;
+import sim.TripPlan;
 
 import java.awt.Point;
 import java.util.ArrayList;
@@ -38,44 +41,78 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 public class RobotSimulationPane extends BorderPane implements SimulationEngine.ResetListener {
     private static final int CELL_SIZE = 60;
+    private static final double MAX_ANIMATION_RATE = 10_000; //VIRTUAL speed: the trip is over in a blink
     private static final int CELLS = 8;
 
     private Label timerLabel;
-    private Timeline timerTimeline;
-    private long startTimeMillis;
-    private int elapsedSeconds = 0;
+    private Timeline timerTimeline; //shows the simulation clock and follows pause/resume
 
     private final SimulationEngine sim;
     private final GraphModel graphModel;
     private final Pane gridPane;
     private final TableView<RobotCargo> cargoTable;
     private final Label statusLabel;
-    private Circle robotDot;
     private boolean initialized = false;
-    private PathTransition robotAnimation;
-    private boolean isAnimationRunning = false;
 
-    private Set<String> tablesToServe = new HashSet<>();
+    //one dot per robot of the fleet, index = robot id
+    private static final Color[] ROBOT_COLORS = {
+        Color.GREEN, Color.DODGERBLUE, Color.MEDIUMPURPLE, Color.GOLD, Color.DEEPPINK, Color.TURQUOISE
+    };
+    private final List<RobotView> robots = new ArrayList<>();
+    
+    //what each robot carries; the cargo table is rebuilt from it at most once per frame
+    private final Map<Integer, List<RobotCargo>> cargoByRobot = new TreeMap<>();
+    private boolean cargoDirty = false;
     
     //map to track which tables have food ordered
     private final Map<String, Circle> foodMarkers = new HashMap<>();
-    
-    //track is the table has been served to prevent duplication in one route. (K -> T2-1 -> T2-1 -> K)
-    private final Set<String> deliveredTables = new HashSet<>();
-    private final boolean DEBUG = true;
+    private static final Logger LOG = Log.logger("ui"); //per-event output at debug, -Dsim.log.ui=debug
+    static {
+        if (Boolean.getBoolean("sim.ui.debug")) LOG.setLevel(Level.DEBUG); //the older switch
+    }
+
+    //what the pane shows of one robot
+    private static class RobotView {
+        final int id;
+        final Circle dot;
+        Animation departure; //waiting at the kitchen while the engine's robot loads
+        Animation animation;
+        boolean animating;
+        final Set<String> tablesToServe = new HashSet<>();
+        //track is the table has been served to prevent duplication in one route. (K -> T2-1 -> T2-1 -> K)
+        final Set<String> deliveredTables = new HashSet<>();
+
+        RobotView(int id, double x, double y) {
+            this.id = id;
+            dot = new Circle(10, ROBOT_COLORS[id % ROBOT_COLORS.length]);
+            dot.setStroke(Color.BLACK);
+            dot.setCenterX(x);
+            dot.setCenterY(y);
+        }
 
-    public static class RobotCargo { //robot cargo containing food, its table
+        void stop() {
+            if (departure != null) departure.stop();
+            if (animating && animation != null) animation.stop();
+            animating = false;
+        }
+    }
+
+    public static class RobotCargo { //robot cargo containing food, its table and the robot carrying it
+        private final String robot;
         private final String food;
         private final String table;
 
-        public RobotCargo(String food, String table) {
+        public RobotCargo(String robot, String food, String table) {
+            this.robot = robot;
             this.food = food;
             this.table = table;
         }
 
+        public String getRobot() { return robot; }
         public String getFood() { return food; }
         public String getTable() { return table; }
     }
@@ -94,15 +131,20 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         gridPane.setPrefSize(CELLS * CELL_SIZE, CELLS * CELL_SIZE);
         gridPane.getStyleClass().add("grid-editor-root");
         
-        //robot representation
-        robotDot = new Circle(10, Color.GREEN);
-        robotDot.setStroke(Color.BLACK);
-        robotDot.setVisible(false);
-        
         //cargo table setup
         cargoTable = new TableView<>();
         cargoTable.setPlaceholder(new Label("Robot is not carrying any food"));
 
+        //robot column - which robot of the fleet carries it
+        TableColumn<RobotCargo, String> robotCol = new TableColumn<>("Robot");
+        robotCol.setCellValueFactory(new Callback<TableColumn.CellDataFeatures<RobotCargo, String>, javafx.beans.value.ObservableValue<String>>() {
+            @Override
+            public javafx.beans.value.ObservableValue<String> call(TableColumn.CellDataFeatures<RobotCargo, String> data) {
+                return new SimpleStringProperty(data.getValue().getRobot());
+            }
+        });
+        robotCol.setPrefWidth(70);
+
         //food column - use explicit cell factory
         TableColumn<RobotCargo, String> foodCol = new TableColumn<>("Food");
         foodCol.setCellValueFactory(new Callback<TableColumn.CellDataFeatures<RobotCargo, String>, javafx.beans.value.ObservableValue<String>>() {
@@ -123,7 +165,7 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         });
         tableCol.setPrefWidth(100);
 
-        cargoTable.getColumns().addAll(foodCol, tableCol);
+        cargoTable.getColumns().addAll(robotCol, foodCol, tableCol);
         cargoTable.setItems(FXCollections.observableArrayList());
         cargoTable.setPrefHeight(150);
         
@@ -156,55 +198,49 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         
         //set up listeners for all events
         setupEventListeners();
+        sim.addFrameListener(this::applyFrame);
     }
 
     @Override
     public void onReset() { //when the reset was clicked
-        Platform.runLater(() -> {
-            System.out.println("[DEBUG] Robot simulation pane reset beginning");
-            
-            //stop any running animations
-            if (isAnimationRunning && robotAnimation != null) {
-                robotAnimation.stop();
-                isAnimationRunning = false;
-            }
-            
-            //clear any running timers
-            stopTimer();
-            
-            //clear food markers
-            clearFoodMarkers();
-            
-            //clear tables to serve set
-            tablesToServe.clear();
-            
-            //clear delivered tables set
-            deliveredTables.clear();
-            
-            //clear cargo table
-            cargoTable.getItems().clear();
-            cargoTable.refresh();
-            
-            //reset status label
-            statusLabel.setText("Ready for new simulation");
-            
-            //reset timer label
-            timerLabel.setText("Timer: 00:00");
-            
-            //remove the grid and add back the placeholder
-            setCenter(null);
-            
-            //create and set the placeholder
-            Label placeholder = new Label("Simulation not started yet.\nDesign your restaurant layout and start the simulation to see robot movement.");
-            placeholder.setAlignment(Pos.CENTER);
-            placeholder.setStyle("-fx-font-size: 32px; -fx-text-fill: #FFFFFF; -fx-font-weight: bold");
-            setCenter(placeholder);
-            
-            //change initialized back to false
-            initialized = false;
-            
-            System.out.println("[DEBUG] Robot simulation pane reset completed");
-        });
+        LOG.debug("Robot simulation pane reset beginning");
+        
+        //stop any running animations
+        for (RobotView r : robots) {
+            r.stop();
+        }
+        robots.clear();
+        
+        //clear any running timers
+        stopTimer();
+        
+        //clear food markers
+        clearFoodMarkers();
+        
+        //clear cargo table
+        cargoByRobot.clear();
+        cargoTable.getItems().clear();
+        cargoDirty = false;
+        
+        //reset status label
+        statusLabel.setText("Ready for new simulation");
+        
+        //reset timer label
+        timerLabel.setText("Timer: 00:00");
+        
+        //remove the grid and add back the placeholder
+        setCenter(null);
+        
+        //create and set the placeholder
+        Label placeholder = new Label("Simulation not started yet.\nDesign your restaurant layout and start the simulation to see robot movement.");
+        placeholder.setAlignment(Pos.CENTER);
+        placeholder.setStyle("-fx-font-size: 32px; -fx-text-fill: #FFFFFF; -fx-font-weight: bold");
+        setCenter(placeholder);
+        
+        //change initialized back to false
+        initialized = false;
+        
+        LOG.debug("Robot simulation pane reset completed");
     }
     
     //add a method to rebuild the grid from scratch
@@ -220,8 +256,10 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
             // Redraw node (existing node drawing code)
         }
         
-        //add the robot dot back
-        gridPane.getChildren().add(robotDot);
+        //add the robot dots back
+        for (RobotView r : robots) {
+            gridPane.getChildren().add(r.dot);
+        }
     }
 
     private void setupEventListeners() {
@@ -229,104 +267,91 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         sim.addSimulationStartListener(new SimulationEngine.SimulationStartListener() { //listener for sim start
             @Override
             public void onSimulationStart() {
-                Platform.runLater(() -> {
-                    //always fully reinitialize the layout
-                    initializeLayout();
-                    initialized = true;
-                    
-                    //clear any existing food markers
-                    clearFoodMarkers();
-                    //clear delivered tables set
-                    deliveredTables.clear();
-                    //clear tables to serve set
-                    tablesToServe.clear();
-                    //reset the status label
-                    statusLabel.setText("Simulation started");
-                    
-                    //start the timer
-                    startTimer();
-                    
-                    System.out.println("[DEBUG] Simulation started - grid initialized");
-                });
+                //always fully reinitialize the layout
+                initializeLayout();
+                initialized = true;
+                
+                //clear any existing food markers and cargo
+                clearFoodMarkers();
+                cargoByRobot.clear();
+                cargoDirty = true;
+                //reset the status label
+                statusLabel.setText("Simulation started");
+                
+                //start the timer
+                startTimer();
+                
+                LOG.debug("Simulation started - grid initialized");
             }
         });
 
         sim.addSimulationCompletionListener(new SimulationEngine.SimulationCompletionListener() { //listener for sim completion
             @Override
             public void onSimulationComplete() {
-                Platform.runLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (initialized && gridPane.getParent() != null) {
-                            statusLabel.setText("Simulation ends");
-                            System.out.println("[UI] Simulation completed - updating status label");
-
-                            
-                            //stop the timer
-                            stopTimer();
-                            
-                            //calculate final time and format the total elapsed time
-                            long totalElapsedSeconds = (System.currentTimeMillis() - startTimeMillis) / 1000;
-                            int minutes = (int)(totalElapsedSeconds / 60);
-                            int seconds = (int)(totalElapsedSeconds % 60);
-                            timerLabel.setText(String.format("Total time: %02d:%02d", minutes, seconds));
-                        }
-                    }
-                });
+                if (initialized && gridPane.getParent() != null) {
+                    statusLabel.setText("Simulation ends");
+                    LOG.info("[UI] Simulation completed - updating status label");
+
+                    
+                    //stop the timer
+                    stopTimer();
+                    
+                    //the service took makespan of simulated time, whatever the speed was
+                    long totalElapsedSeconds = sim.makespanMs() / 1000;
+                    int minutes = (int)(totalElapsedSeconds / 60);
+                    int seconds = (int)(totalElapsedSeconds % 60);
+                    timerLabel.setText(String.format("Total time: %02d:%02d", minutes, seconds));
+                }
             }
         });
         
         //when receiving orders in the dispatch, record which tables need food
         sim.addRobotDispatchListener(new SimulationEngine.RobotDispatchListener() {
             @Override
-            public void onRobotDispatch(List<Order> orders, List<String> route) {
-                if (DEBUG) {
-                    System.out.println("---------------------------------------");
-                    System.out.println("[DEBUG] Robot dispatch event with " + orders.size() + " orders");
-                    System.out.println("[DEBUG] Route: " + String.join(" -> ", route));
+            public void onRobotDispatch(TripPlan trip) {
+                int robotId = trip.robot();
+                List<Order> orders = trip.orders();
+                if (LOG.isDebug()) {
+                    LOG.debug("---------------------------------------");
+                    LOG.debug("Robot {} dispatch event with {} orders", robotId, orders.size());
+                    LOG.debug("Route: {}", String.join(" -> ", trip.path()));
                 }
                 
-                Platform.runLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        //reset delivered tables for new round
-                        deliveredTables.clear();
-                        
-                        //reset table state
-                        cargoTable.getItems().clear();
-                        cargoTable.refresh();
-                        
-                        //clear and rebuild the tables to serve set
-                        tablesToServe.clear();
-                        
-                        //update cargo table with new orders and record tables to serve
-                        updateCargoTable(orders);
-                        
-                        //record which tables should receive food (from orders)
-                        for (Order order : orders) {
-                            String tableName = getNodeName(order.tableNumber());
-                            tablesToServe.add(tableName);
-                            if (DEBUG) {
-                                System.out.println("[DEBUG] Table " + tableName + " will receive food");
-                            }
-                        }
-                        
-                        //start animation after a short delay
-                        PauseTransition pause = new PauseTransition(Duration.millis(200));
-                        pause.setOnFinished(e -> animateRobotAlongRoute(route, orders));
-                        pause.play();
-                    }
-                });
+                //already on the FX thread, called from the engine's frame drain
+                RobotView robot = robotView(robotId);
+                if (robot == null) return;
+
+                //reset delivered tables for new round
+                robot.deliveredTables.clear();
+                
+                //clear and rebuild the tables to serve set
+                robot.tablesToServe.clear();
+                
+                //update cargo table with new orders and record tables to serve
+                updateCargoTable(robotId, orders);
+                
+                //record which tables should receive food (from orders)
+                for (Order order : orders) {
+                    robot.tablesToServe.add(getNodeName(order.tableNumber()));
+                }
+                
+                //start animation when the engine's robot leaves, once it has loaded
+                long untilDepart = Math.max(0, trip.departMs() - sim.now());
+                PauseTransition pause = new PauseTransition(simDuration(untilDepart));
+                pause.setOnFinished(e -> animateRobotAlongRoute(robot, trip));
+                robot.departure = pause;
+                pause.play();
+                follow(pause); //a robot loading in a paused service waits with it
             }
         });
         
-        //listen for delivery events from actual ServeRobot
+        //the engine decides when the robot reaches a table, the pane only shows it
         sim.addDeliveryListener(new SimulationEngine.DeliveryListener() {
             @Override
-            public void onDelivery(String tableName) {
-                if (DEBUG) {
-                    System.out.println("[DEBUG] Delivery event from ServeRobot for table: " + tableName);
-                }
+            public void onDelivery(int robotId, String tableName) {
+                LOG.debug("Delivery event from the engine for robot {} at table: {}", robotId, tableName);
+                RobotView robot = robotView(robotId);
+                if (robot != null) handleTableDelivery(robot, tableName);
             }
         });
         
@@ -334,13 +359,8 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         sim.addSimulationCompletionListener(new SimulationEngine.SimulationCompletionListener() {
             @Override
             public void onSimulationComplete() {
-                Platform.runLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        statusLabel.setText("Simulation ends");
-                        System.out.println("[UI] Simulation completed - updating status label");
-                    }
-                });
+                statusLabel.setText("Simulation ends");
+                LOG.info("[UI] Simulation completed - updating status label");
             }
         });
     }
@@ -349,7 +369,7 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         //find the node by name
         GraphModel.Node tableNode = findNodeByName(tableName);
         if (tableNode == null) {
-            System.err.println("[ERROR] Could not find table node: " + tableName);
+            LOG.error("[ERROR] Could not find table node: {}", tableName);
             return;
         }
         
@@ -368,7 +388,14 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         gridPane.getChildren().add(foodMarker);
         foodMarkers.put(tableName, foodMarker);
         
-        System.out.println("[FOOD] Added food marker to table: " + tableName);
+        LOG.debug("[FOOD] Added food marker to table: {}", tableName);
+    }
+
+    private void clearFoodMarkers(Set<String> tables) { //clear the food markers of the tables one robot served
+        for (String table : tables) {
+            Circle marker = foodMarkers.remove(table);
+            if (marker != null) gridPane.getChildren().remove(marker);
+        }
     }
 
     private void clearFoodMarkers() { //clear all food markers
@@ -376,7 +403,7 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
             gridPane.getChildren().remove(marker);
         }
         foodMarkers.clear();
-        System.out.println("[FOOD] Cleared all food markers");
+        LOG.debug("[FOOD] Cleared all food markers");
     }
     
     private void initializeLayout() { //redrawing the entire grid UI
@@ -449,26 +476,32 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
             }
         }
         
-        //add the robot to the kitchen position
+        //add the robots to the kitchen position
+        for (RobotView r : robots) {
+            r.stop();
+        }
+        robots.clear();
         String kitchenId = graphModel.kitchenId().orElse(null);
         if (kitchenId != null) {
             GraphModel.Node kitchen = findNode(kitchenId);
             if (kitchen != null) {
-                //(re)create the robot dot to ensure it's born in the kitchen
-                robotDot = new Circle(10, Color.GREEN);
-                robotDot.setStroke(Color.BLACK);
-                robotDot.setCenterX(kitchen.x());
-                robotDot.setCenterY(kitchen.y());
-                robotDot.setVisible(true);
-                gridPane.getChildren().add(robotDot);
+                //(re)create the robot dots to ensure they're born in the kitchen, fanned out so all are visible
+                int fleet = sim.fleetSize();
+                for (int i = 0; i < fleet; i++) {
+                    double angle = 2 * Math.PI * i / fleet;
+                    double spread = fleet > 1 ? 12 : 0;
+                    RobotView r = new RobotView(i, kitchen.x() + spread * Math.cos(angle), kitchen.y() + spread * Math.sin(angle));
+                    robots.add(r);
+                    gridPane.getChildren().add(r.dot);
+                }
             }
         }
         
         //setting the gridPane as the center
         setCenter(gridPane);
         
-        System.out.println("[DEBUG] Grid layout initialized with " + graphModel.nodes().size() + " nodes and " + 
-                           graphModel.edges().size() + " edges");
+        LOG.debug("Grid layout initialized with {} nodes and {} edges", graphModel.nodes().size(),
+            graphModel.edges().size());
     }
      
     private void drawGridLines() { //draw gridlines for the layout in this tab
@@ -482,180 +515,76 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
     }
     
     private GraphModel.Node findNode(String id) { //find a node by its ID
-        for (GraphModel.Node node : graphModel.nodes()) {
-            if (node.id().equals(id)) {
-                return node;
-            }
-        }
-        return null;
+        return graphModel.findNode(id).orElse(null);
     }
     
     private GraphModel.Node findNodeByName(String name) { //find a node by its name
-        for (GraphModel.Node node : graphModel.nodes()) {
-            if (node.name().equals(name)) {
-                return node;
-            }
-        }
-        return null;
+        return graphModel.findNodeByName(name).orElse(null);
     }
     
     private GraphModel.Edge findEdge(String idA, String idB) { //find an edge between two nodes(ID)
-        for (GraphModel.Edge edge : graphModel.edges()) {
-            if ((edge.from.equals(idA) && edge.to.equals(idB)) ||
-                (edge.from.equals(idB) && edge.to.equals(idA))) {
-                return edge;
-            }
-        }
-        return null;
+        return graphModel.findEdge(idA, idB).orElse(null);
     }
     
-    private void updateCargoTable(List<Order> orders) { //update the cargo table
-        if (DEBUG) {
-            System.out.println("[DEBUG] Updating cargo table with " + orders.size() + " orders");
-        }
-        
-        //create a new list for the cargo items
+    private RobotView robotView(int robotId) { //the view of a robot, null before the layout is drawn
+        return robotId >= 0 && robotId < robots.size() ? robots.get(robotId) : null;
+    }
+
+    private static String robotLabel(int robotId) {
+        return "R" + (robotId + 1);
+    }
+
+    private void updateCargoTable(int robotId, List<Order> orders) { //replace one robot's rows of the cargo table
+        String robot = robotLabel(robotId);
         List<RobotCargo> cargoItems = new ArrayList<>();
-        
-        //add each order to the list
         for (Order order : orders) {
-            String tableName = getNodeName(order.tableNumber());
-            String foodName = order.dish().name;
-            if (DEBUG) {
-                System.out.println("[DEBUG] Adding cargo item: " + foodName + " for " + tableName);
-            }
-            cargoItems.add(new RobotCargo(foodName, tableName));
+            cargoItems.add(new RobotCargo(robot, order.dish().name, getNodeName(order.tableNumber())));
         }
-        
-        //create a new observable list
-        ObservableList<RobotCargo> observableItems = FXCollections.observableArrayList(cargoItems);
-        
-        //clear existing items first
-        cargoTable.getItems().clear();
-        
-        //set the new items
-        cargoTable.setItems(observableItems);
-        
-        //log state after update
-        if (DEBUG) {
-            System.out.println("[DEBUG] Table now has " + cargoTable.getItems().size() + " items");
+        cargoByRobot.put(robotId, cargoItems);
+        cargoDirty = true;
+    }
+
+    //once per frame, after the engine's events of that frame: one change to the cargo table
+    //however many robots were dispatched, delivered or came home
+    private void applyFrame() {
+        if (!cargoDirty) return;
+        cargoDirty = false;
+        List<RobotCargo> rows = new ArrayList<>();
+        for (List<RobotCargo> cargo : cargoByRobot.values()) {
+            rows.addAll(cargo);
         }
-        
-        //make sure table is visible
-        cargoTable.setVisible(true);
-        
-        //force refresh
-        cargoTable.refresh();
+        cargoTable.getItems().setAll(rows);
+        LOG.debug("Table now has {} items", rows.size());
     }
       
     private String getNodeName(int tableNumber) { //get node name by its number
-        return graphModel.nodes().stream()
-            .filter(n -> graphModel.getNodeInfo(n.id())
-                .filter(info -> info.kind == GraphModel.NodeKind.TABLE && info.number == tableNumber)
-                .isPresent()
-            )
-            .findFirst()
-            .map(GraphModel.Node::name)
-            .orElse(String.valueOf(tableNumber));
+        return graphModel.tableName(tableNumber, String.valueOf(tableNumber));
     }
     
-    private void handleTableDelivery(String tableName) { //only mark tables that should receive food
-        if (deliveredTables.contains(tableName)) {
+    private void handleTableDelivery(RobotView robot, String tableName) { //only mark tables that should receive food
+        if (robot.deliveredTables.contains(tableName)) {
             return;
         }
         
-        System.out.println("[DELIVERY] Processing delivery for table: " + tableName);
+        LOG.debug("[DELIVERY] Processing delivery for table: {}", tableName);
         
         //only add food marker if this table is in the tablesToServe set
-        if (tablesToServe.contains(tableName)) {
+        if (robot.tablesToServe.contains(tableName)) {
             //manually add visual food marker to the table
             addFoodToTable(tableName);
             
-            //check if there are any cargo items for this table
-            List<RobotCargo> deliveredItems = new ArrayList<>();
-            
-            for (RobotCargo cargo : cargoTable.getItems()) {
-                if (cargo.getTable().equals(tableName)) {
-                    deliveredItems.add(cargo);
-                }
-            }
-            
-            if (!deliveredItems.isEmpty()) {
-                System.out.println("[DELIVERY] Delivering " + deliveredItems.size() + " food items to " + tableName);
-                
-                //remove items from cargo table
-                cargoTable.getItems().removeAll(deliveredItems);
-                cargoTable.refresh();
-                
-                //also notify the simulation engine (original mechanism)
-                //this is important for the simulation logic
-                sim.notifyDelivery(tableName);
-            } else {
-                System.out.println("[DELIVERY WARNING] No matching cargo items found for " + tableName);
-            }
+            //take this table's items off the robot, the table follows at the end of the frame
+            List<RobotCargo> cargo = cargoByRobot.get(robot.id);
+            boolean delivered = cargo != null && cargo.removeIf(c -> c.getTable().equals(tableName));
+            cargoDirty |= delivered;
+            LOG.debug(delivered ? "[DELIVERY] Delivered food to {}" : "[DELIVERY WARNING] No matching cargo items found for {}",
+                tableName);
         } else {
-            System.out.println("[PASS] Robot passing through table " + tableName + " (no delivery)");
+            LOG.debug("[PASS] Robot passing through table {} (no delivery)", tableName);
         }
         
         //mark as delivered/visited to avoid duplicate deliveries
-        deliveredTables.add(tableName);
-    }
-    
-    private int getNodeIndexInRoute(String nodeName, List<String> route) { //get a node index in a serving route
-        for (int i = 0; i < route.size(); i++) {
-            if (route.get(i).equals(nodeName)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-    
-    private Map<String, Double> calculateNodeDistances(List<String> route) { //calculate the distance between each pair of nodes in this route
-        Map<String, Double> distances = new HashMap<>();
-        
-        if (route.isEmpty()) {
-            return distances;
-        }
-        
-        //start with first node
-        String currentNodeName = route.get(0);
-        GraphModel.Node currentNode = findNodeByName(currentNodeName);
-        
-        //first node is at distance 0
-        distances.put(currentNodeName, 0.0);
-        double totalDistance = 0.0;
-        
-        //calculate distance to each subsequent node
-        for (int i = 1; i < route.size(); i++) {
-            String nextNodeName = route.get(i);
-            GraphModel.Node nextNode = findNodeByName(nextNodeName);
-            
-            if (nextNode == null) {
-                continue;
-            }
-            
-            //find the edge between current and next node
-            GraphModel.Edge edge = findEdge(currentNode.id(), nextNode.id());
-            double segmentDistance = 0.0;
-            
-            if (edge != null) {
-                segmentDistance = edge.weight + 1; //add 1 for the edge itself
-            } else {
-                //calculate direct distance if no edge found
-                segmentDistance = Math.sqrt(
-                    Math.pow(nextNode.x() - currentNode.x(), 2) + 
-                    Math.pow(nextNode.y() - currentNode.y(), 2)
-                ) / CELL_SIZE;
-            }
-            
-            totalDistance += segmentDistance;
-            distances.put(nextNodeName, totalDistance);
-            
-            //move to next node
-            currentNode = nextNode;
-        }
-        
-        return distances;
+        robot.deliveredTables.add(tableName);
     }
     
     private Path createPathFromRoute(List<String> route) { //create an object following the route
@@ -717,131 +646,105 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
         return path;
     }
     
-    private void animateRobotAlongRoute(List<String> route, List<Order> orders) { //robot animation
+    private void animateRobotAlongRoute(RobotView robot, TripPlan trip) { //robot animation
         //cancel any existing animation
-        if (isAnimationRunning) {
-            if (robotAnimation != null) {
-                robotAnimation.stop();
-            }
-            isAnimationRunning = false;
-        }
+        robot.stop();
         
+        List<String> route = trip.path();
         if (route.isEmpty()) {
             return;
         }
         
-        //reset delivered tables for new round
-        deliveredTables.clear();
-        
-        statusLabel.setText("Robot in motion: " + String.join(" -> ", route));
+        statusLabel.setText(robotLabel(robot.id) + " in motion: " + String.join(" -> ", route));
         
-        //find all tables in the route (not kitchen or junction)
-        List<String> tableNodesInRoute = new ArrayList<>();
-        for (String nodeName : route) {
-            if (!nodeName.startsWith("K") && !nodeName.startsWith("J")) {
-                tableNodesInRoute.add(nodeName);
-                System.out.println("[TABLE] Table " + nodeName + " is in route");
+        //follow the engine's timing of the trip; a repeated node is a step spent waiting for
+        //another robot, walk the stretches in between
+        List<Long> times = trip.pathTimesMs();
+        SequentialTransition transition = new SequentialTransition();
+        int from = 0;
+        for (int i = 1; i < route.size(); i++) {
+            if (route.get(i).equals(route.get(i - 1))) {
+                if (i - 1 > from) {
+                    transition.getChildren().add(walkAlong(robot, route.subList(from, i), times.get(i - 1) - times.get(from)));
+                }
+                from = i;
+                transition.getChildren().add(new PauseTransition(simDuration(times.get(i) - times.get(i - 1))));
             }
         }
-        
-        //calculate exact node distances
-        Map<String, Double> nodeDistances = calculateNodeDistances(route);
-        
-        //create the path
-        Path path = createPathFromRoute(route);
-        
-        //get total distance (from last node)
-        double totalDistance = nodeDistances.getOrDefault(route.get(route.size() - 1), 0.0);
-        if (totalDistance == 0.0) {
-            //fallback if distances couldn't be calculated
-            totalDistance = route.size();
+        int last = route.size() - 1;
+        if (last > from) {
+            transition.getChildren().add(walkAlong(robot, route.subList(from, route.size()), times.get(last) - times.get(from)));
         }
         
-        //create the animation
-        PathTransition transition = new PathTransition();
-        transition.setDuration(Duration.seconds(0.5 * totalDistance)); //0.5 second per block
-        transition.setPath(path);
-        transition.setNode(robotDot);
-        transition.setCycleCount(1);
-        
-        //set LINEAR interpolator for constant speed motion
-        transition.setInterpolator(javafx.animation.Interpolator.LINEAR);
-        
         //keep track of animation
-        robotAnimation = transition;
-        
-        //schedule deliveries using timed animations
-        for (String tableName : tableNodesInRoute) {
-            //find exact node index - important to get right route position
-            int nodeIndex = getNodeIndexInRoute(tableName, route);
-            if (nodeIndex == -1) continue;
-            
-            //use calculated distance from node distances map
-            double exactDistance = nodeDistances.getOrDefault(tableName, 0.0);
-            
-            //create a pause transition that waits until it's time to deliver
-            //slightly adjust timing (subtract a tiny bit) to ensure we're exactly at the node
-            double deliveryTime = 0.5 * exactDistance;
-            
-            System.out.println("[TIMING] Table " + tableName + " at index " + nodeIndex + 
-                              ", distance: " + exactDistance + 
-                              ", delivery time: " + deliveryTime + " seconds");
-            
-            PauseTransition deliveryTimer = new PauseTransition(Duration.seconds(deliveryTime));
-            deliveryTimer.setOnFinished(e -> {
-                System.out.println("[TIMED] Time to deliver to: " + tableName);
-                
-                //manually trigger delivery
-                handleTableDelivery(tableName);
-            });
-            deliveryTimer.play();
-        }
+        robot.animation = transition;
         
         //start the animation
-        isAnimationRunning = true;
+        robot.animating = true;
         transition.play();
+        follow(transition);
         
         //when animation completes...
         transition.setOnFinished(e -> {
             //first notify we're done
-            isAnimationRunning = false;
-            statusLabel.setText("Robot returned to kitchen");
-            
-            //clear all food markers when the robot returns to kitchen
-            clearFoodMarkers();
+            robot.animating = false;
+            statusLabel.setText(robotLabel(robot.id) + " returned to kitchen");
             
-            //clear the cargo table
-            cargoTable.getItems().clear();
-            cargoTable.refresh();
-            System.out.println("[DEBUG] Cleared cargo table after animation");
+            //clear the food markers this robot left when it returns to kitchen
+            clearFoodMarkers(robot.tablesToServe);
             
-            //create a slight delay before notifying simulation engine
-            PauseTransition completionDelay = new PauseTransition(Duration.millis(500));
-            completionDelay.setOnFinished(event -> {
-                //notify simulation engine that movement is complete
-                sim.notifyRobotMovementComplete();
-            });
-            completionDelay.play();
+            //clear this robot's rows of the cargo table
+            cargoByRobot.remove(robot.id);
+            cargoDirty = true;
+            //no hand-back to the engine: it already knows when the robot is home
         });
     }
 
+    private PathTransition walkAlong(RobotView robot, List<String> route, long simMs) { //constant speed along consecutive nodes
+        PathTransition transition = new PathTransition();
+        transition.setDuration(simDuration(simMs)); //as long as the engine's robot takes for it
+        transition.setPath(createPathFromRoute(route));
+        transition.setNode(robot.dot);
+        transition.setCycleCount(1);
+        
+        //set LINEAR interpolator for constant speed motion
+        transition.setInterpolator(javafx.animation.Interpolator.LINEAR);
+        return transition;
+    }
+
+    //duration of simMs of simulated time at real speed; the animation's rate makes it as fast as the engine
+    private Duration simDuration(double simMs) {
+        return Duration.millis(Math.max(1, simMs));
+    }
+
+    //keep an animation in step with the engine: its rate is the current speed, and it is paused
+    //while the engine is, so a speed change or a pause mid-trip does not leave the dot behind
+    private void follow(Animation a) {
+        double rate = Math.min(sim.speed(), MAX_ANIMATION_RATE);
+        if (a.getRate() != rate) a.setRate(rate);
+        if (sim.isPaused() && a.getStatus() == Animation.Status.RUNNING) {
+            a.pause();
+        } else if (!sim.isPaused() && a.getStatus() == Animation.Status.PAUSED) {
+            a.play();
+        }
+    }
+
     private void startTimer() {
-        //reset timer state
-        elapsedSeconds = 0;
         if (timerTimeline != null) {
             timerTimeline.stop();
         }
         
-        //record start time
-        startTimeMillis = System.currentTimeMillis();
-        
         //update timer label
         updateTimerLabel();
         
-        //create and start the timer
-        timerTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
-            elapsedSeconds++;
+        //read the simulation clock a few times per second, it may run much faster than real time
+        timerTimeline = new Timeline(new KeyFrame(Duration.millis(200), e -> {
             updateTimerLabel();
+            //keep the robot animations in step with the engine's speed and pauses
+            for (RobotView r : robots) {
+                if (r.departure != null && r.departure.getStatus() != Animation.Status.STOPPED) follow(r.departure);
+                if (r.animation != null && r.animating) follow(r.animation);
+            }
         }));
         timerTimeline.setCycleCount(Timeline.INDEFINITE);
         timerTimeline.play();
@@ -854,8 +757,9 @@ public class RobotSimulationPane extends BorderPane implements SimulationEngine.
     }
 
     private void updateTimerLabel() {
-        int minutes = elapsedSeconds / 60;
-        int seconds = elapsedSeconds % 60;
+        long elapsedSeconds = sim.now() / 1000;
+        long minutes = elapsedSeconds / 60;
+        long seconds = elapsedSeconds % 60;
         timerLabel.setText(String.format("Timer: %02d:%02d", minutes, seconds));
     }
 
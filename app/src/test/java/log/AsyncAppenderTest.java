@@ -0,0 +1,97 @@
+package log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncAppenderTest {
+    @Test void placeholdersAreFilledInOrderAndExtraOnesStay() {
+        assertEquals("[ROBOT 2] Delivered to: T4-1",
+            new AsyncAppender.Entry(Level.INFO, "sim", "[ROBOT {}] Delivered to: {}", 2, 2, "T4-1", null).format());
+        assertEquals("a 1 b {}", new AsyncAppender.Entry(Level.INFO, "sim", "a {} b {}", 1, 1, null, null).format());
+        assertEquals("no args {}", new AsyncAppender.Entry(Level.INFO, "sim", "no args {}", 0, null, null, null).format());
+    }
+
+    @Test void linesArriveInOrderWithWarningsOnTheErrorStream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        AsyncAppender appender = new AsyncAppender(new PrintStream(out, false, StandardCharsets.UTF_8),
+            new PrintStream(err, false, StandardCharsets.UTF_8), 1024);
+        try {
+            for (int i = 0; i < 100; i++) {
+                appender.append(new AsyncAppender.Entry(Level.INFO, "t", "line {}", 1, i, null, null));
+            }
+            appender.append(new AsyncAppender.Entry(Level.WARN, "t", "careful", 0, null, null, null));
+            appender.flush();
+        } finally {
+            appender.close();
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(100, lines.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("line " + i, lines[i]);
+        }
+        assertEquals("careful\n", err.toString(StandardCharsets.UTF_8));
+        assertEquals(0, appender.dropped());
+    }
+
+    @Test void aSleepingWriterWakesUpForTheNextLineAndCloseWritesTheRest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream print = new PrintStream(out, true, StandardCharsets.UTF_8);
+        AsyncAppender appender = new AsyncAppender(print, print, 64);
+        try {
+            Thread.sleep(20); //the writer has nothing to do and parks
+            appender.append(new AsyncAppender.Entry(Level.INFO, "t", "wake up", 0, null, null, null));
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!out.toString(StandardCharsets.UTF_8).contains("wake up") && System.nanoTime() < deadline) {
+                Thread.sleep(1); //no flush: only the append itself may wake the writer
+            }
+            assertEquals("wake up\n", out.toString(StandardCharsets.UTF_8));
+            appender.append(new AsyncAppender.Entry(Level.INFO, "t", "last", 0, null, null, null));
+        } finally {
+            appender.close();
+        }
+        assertEquals("wake up\nlast\n", out.toString(StandardCharsets.UTF_8));
+        appender.append(new AsyncAppender.Entry(Level.INFO, "t", "too late", 0, null, null, null));
+        assertEquals(1, appender.dropped());
+    }
+
+    @Test void everyLineRacingCloseIsEitherWrittenOrCountedAsDropped() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncAppender appender = new AsyncAppender(new PrintStream(out, false, StandardCharsets.UTF_8),
+            new PrintStream(new ByteArrayOutputStream(), false, StandardCharsets.UTF_8), 256);
+        Thread[] loggers = new Thread[4];
+        for (int t = 0; t < loggers.length; t++) {
+            loggers[t] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    appender.append(new AsyncAppender.Entry(Level.INFO, "t", "x", 0, null, null, null));
+                }
+            });
+            loggers[t].start();
+        }
+        Thread.sleep(2); //close while the loggers are still going
+        appender.close();
+        for (Thread t : loggers) t.join();
+
+        long lines = out.toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count();
+        assertEquals(loggers.length * 20_000L, lines + appender.dropped());
+    }
+
+    @Test void levelsFilterBeforeAnythingIsWritten() {
+        Logger quiet = Log.logger("test.quiet");
+        quiet.setLevel(Level.WARN);
+        assertFalse(quiet.isDebug());
+        assertFalse(quiet.isInfo());
+        assertTrue(quiet.isEnabled(Level.ERROR));
+        quiet.setLevel(null); //back to the global threshold
+        assertEquals(Log.level().compareTo(Level.INFO) <= 0, quiet.isInfo());
+
+        assertFalse(Logger.OFF.isEnabled(Level.ERROR));
+        assertThrows(UnsupportedOperationException.class, () -> Logger.OFF.setLevel(Level.INFO));
+        assertSame(Log.logger("test.quiet"), quiet);
+    }
+}
@@ -0,0 +1,76 @@
+package log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingTest {
+    private record Item(int producer, int n) {}
+
+    @Test void fullRingRefusesUntilTheConsumerTakesOne() {
+        MpscRing<Integer> ring = new MpscRing<>(3);
+        assertEquals(4, ring.capacity()); //rounded up to a power of two
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4));
+        List<Integer> rest = new ArrayList<>();
+        assertEquals(4, ring.drain(rest::add, 10));
+        assertEquals(List.of(1, 2, 3, 4), rest);
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void everyItemOfEveryProducerArrivesOnceAndInItsProducersOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 5_000;
+        MpscRing<Item> ring = new MpscRing<>(64); //small, so producers keep running into a full ring
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread t = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int n = 0; n < perProducer; n++) {
+                    Item item = new Item(id, n);
+                    while (!ring.offer(item)) {
+                        Thread.yield(); //let the consumer run on a machine with fewer cores than threads
+                    }
+                }
+            });
+            t.setDaemon(true); //a stuck producer must not keep the test JVM alive after the timeout
+            t.start();
+            threads.add(t);
+        }
+        go.countDown();
+
+        int[] next = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            Item item = ring.poll();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[item.producer()], item.n(), "producer " + item.producer());
+            next[item.producer()]++;
+            received++;
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertNull(ring.poll());
+    }
+}
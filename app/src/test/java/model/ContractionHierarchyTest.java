@@ -0,0 +1,44 @@
+package model;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+    @Test void matchesRouteTableOnRandomGraphs() {
+        Random rnd = new Random(11);
+        for (int round = 0; round < 15; round++) {
+            int n = 2 + rnd.nextInt(60);
+            Graph g = new Graph();
+            for (int i = 1; i < n; i++) g.addEdge("N" + rnd.nextInt(i), "N" + i, 1 + rnd.nextInt(9)); //spanning tree
+            for (int e = 0; e < n; e++) g.addEdge("N" + rnd.nextInt(n), "N" + rnd.nextInt(n), 1 + rnd.nextInt(9));
+            RouteTable table = RouteTable.build(g);
+            ContractionHierarchy ch = ContractionHierarchy.build(g);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    String a = "N" + i, b = "N" + j;
+                    assertEquals(table.distance(a, b), ch.distance(a, b), a + " -> " + b);
+                    List<String> path = ch.path(a, b);
+                    assertEquals(a, path.get(0));
+                    assertEquals(b, path.get(path.size() - 1));
+                    int len = 0;
+                    for (int k = 0; k + 1 < path.size(); k++) len += table.distance(path.get(k), path.get(k + 1));
+                    assertEquals(table.distance(a, b), len, "unpacked " + path);
+                }
+            }
+        }
+    }
+
+    @Test void unreachableAndUnknownNodes() {
+        Graph g = new Graph();
+        g.addEdge("K", "J1", 2);
+        g.addEdge("T2-1", "T2-2", 1);
+        ContractionHierarchy ch = ContractionHierarchy.build(g);
+        assertEquals(ShortestPaths.INF, ch.distance("K", "T2-2"));
+        assertTrue(ch.path("K", "T2-2").isEmpty());
+        assertTrue(ch.path("K", "nowhere").isEmpty());
+        assertEquals(List.of("K"), ch.path("K", "K"));
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicRouteTableTest {
+    private List<Point> cells(int count) {
+        return new ArrayList<>(Collections.nCopies(count, new Point(0, 0)));
+    }
+
+    //the same table rebuilt from scratch with Dijkstra
+    private RouteTable fromScratch(GraphModel gm) {
+        return RouteTable.build(Graph.of(gm));
+    }
+
+    @Test void followsRandomEdits() {
+        Random rnd = new Random(5);
+        GraphModel gm = new GraphModel();
+        DynamicRouteTable live = DynamicRouteTable.attach(gm);
+        gm.addNode(30, 30, TableType.K);
+        for (int i = 0; i < 20; i++) gm.addNode(30, 30, i % 3 == 0 ? TableType.J : TableType.T2);
+        int n = gm.nodes().size();
+        for (int step = 0; step < 200; step++) {
+            String a = String.valueOf(1 + rnd.nextInt(n));
+            String b = String.valueOf(1 + rnd.nextInt(n));
+            if (a.equals(b)) continue;
+            if (gm.findEdge(a, b).isPresent() && rnd.nextInt(3) == 0) {
+                gm.removeEdge(a, b);
+            } else if (gm.findEdge(a, b).isEmpty()) {
+                gm.addEdge(a, b, cells(rnd.nextInt(4)));
+            }
+            RouteTable expected = fromScratch(gm);
+            RouteTable actual = live.snapshot();
+            for (GraphModel.Node x : gm.nodes()) {
+                for (GraphModel.Node y : gm.nodes()) {
+                    int d = expected.contains(x.name()) && expected.contains(y.name())
+                        ? expected.distance(x.name(), y.name())
+                        : (x == y ? 0 : RouteTable.UNREACHABLE);
+                    assertEquals(d, actual.distance(x.name(), y.name()), x.name() + " -> " + y.name());
+                    List<String> path = actual.path(x.name(), y.name());
+                    int len = 0;
+                    for (int k = 0; k + 1 < path.size(); k++) len += expected.distance(path.get(k), path.get(k + 1));
+                    if (d != RouteTable.UNREACHABLE) assertEquals(d, len, "path " + path);
+                }
+            }
+        }
+        gm.clear();
+        assertEquals(0, live.snapshot().distance("K", "K"));
+    }
+}
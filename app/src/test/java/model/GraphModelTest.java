@@ -0,0 +1,56 @@
+package model;
+
+import java.awt.Point;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphModelTest {
+    @Test void indexesFollowEdits() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(30, 30, TableType.K);
+        GraphModel.Node t1 = gm.addNode(90, 30, TableType.T4);
+        GraphModel.Node j1 = gm.addNode(150, 30, TableType.J);
+        GraphModel.Node t2 = gm.addNode(210, 30, TableType.T2);
+
+        assertEquals("T4-1", gm.tableName(1, "?"));
+        assertEquals("T2-2", gm.tableName(2, "?"));
+        assertEquals("?", gm.tableName(3, "?"));
+        assertEquals(t2, gm.findTable(2).orElseThrow());
+        assertEquals(j1, gm.findNodeByName("J1").orElseThrow());
+        assertEquals("K", gm.nameOf(k.id()));
+
+        GraphModel.Edge e = gm.addEdge(t1.id(), k.id(), List.of(new Point(1, 0)));
+        assertSame(e, gm.findEdge(k.id(), t1.id()).orElseThrow()); //either direction
+        assertTrue(gm.findEdge(k.id(), t2.id()).isEmpty());
+
+        gm.removeEdge(k.id(), t1.id());
+        assertTrue(gm.findEdge(t1.id(), k.id()).isEmpty());
+        assertTrue(gm.edges().isEmpty());
+
+        gm.clear();
+        assertTrue(gm.findNode(k.id()).isEmpty());
+        assertTrue(gm.findTable(1).isEmpty());
+    }
+
+    @Test void copyDoesNotSeeLaterEdits() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(30, 30, TableType.K);
+        GraphModel.Node t1 = gm.addNode(90, 30, TableType.T4);
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(1, 0)));
+        GraphModel copy = gm.copy();
+
+        gm.removeEdge(k.id(), t1.id());
+        gm.addNode(150, 30, TableType.T2);
+        gm.setStaffing(Staffing.uniform(2, 0));
+
+        assertEquals(1, copy.edges().size());
+        assertTrue(copy.findEdge(t1.id(), k.id()).isPresent());
+        assertEquals(2, copy.nodes().size());
+        assertTrue(copy.findTable(2).isEmpty());
+        assertEquals("T4-1", copy.tableName(1, "?"));
+        assertEquals(k.id(), copy.kitchenId().orElseThrow());
+        assertSame(Staffing.DEFAULT, copy.staffing());
+    }
+}
@@ -0,0 +1,53 @@
+package model;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTableTest {
+    //K - J1 - T2-1 with a long detour K - T2-2 - T2-1
+    private Graph sampleGraph() {
+        Graph g = new Graph();
+        g.addEdge("K", "J1", 2);
+        g.addEdge("J1", "T2-1", 3);
+        g.addEdge("K", "T2-2", 4);
+        g.addEdge("T2-2", "T2-1", 4);
+        return g;
+    }
+
+    @Test void matchesDijkstra() {
+        Graph g = sampleGraph();
+        RouteTable table = RouteTable.build(g);
+        for (String a : g.nodes()) {
+            for (String b : g.nodes()) {
+                List<String> expected = g.dijkstra(a, b);
+                List<String> actual = table.path(a, b);
+                assertEquals(expected.get(0), actual.get(0));
+                assertEquals(expected.get(expected.size() - 1), actual.get(actual.size() - 1));
+                assertEquals(pathLength(g, expected), table.distance(a, b));
+                assertEquals(pathLength(g, actual), table.distance(a, b));
+            }
+        }
+        assertEquals(List.of("K", "J1", "T2-1"), table.path("K", "T2-1"));
+        assertEquals(5, table.distance("T2-1", "K"));
+    }
+
+    @Test void unreachableNodes() {
+        Graph g = sampleGraph();
+        g.addEdge("T4-1", "J2", 1);
+        RouteTable table = RouteTable.build(g);
+        assertEquals(RouteTable.UNREACHABLE, table.distance("K", "T4-1"));
+        assertTrue(table.path("K", "T4-1").isEmpty());
+        assertTrue(table.path("K", "nowhere").isEmpty());
+        assertEquals(List.of("K"), table.path("K", "K"));
+    }
+
+    private int pathLength(Graph g, List<String> path) {
+        int total = 0;
+        for (int i = 0; i + 1 < path.size(); i++) {
+            total += (int) g.getWeight(path.get(i), path.get(i + 1));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,87 @@
+package model;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortestPathsTest {
+    @Test void heapPollsInKeyOrderWithDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.push(0, 9);
+        heap.push(1, 5);
+        heap.push(2, 7);
+        heap.push(0, 1); //decrease-key
+        heap.push(1, 8); //larger key is ignored
+        heap.ensureCapacity(8);
+        heap.push(6, 6);
+        assertEquals(0, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(6, heap.poll());
+        assertEquals(2, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test void matchesFloydWarshallOnRandomGraphs() {
+        Random rnd = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int n = 2 + rnd.nextInt(30);
+            Graph g = new Graph();
+            int[][] fw = new int[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) fw[i][j] = i == j ? 0 : Integer.MAX_VALUE / 4;
+            }
+            for (int i = 0; i < n; i++) g.addEdge("N" + i, "N" + ((i + 1) % n), 1 + rnd.nextInt(9));
+            for (int e = 0; e < n; e++) g.addEdge("N" + rnd.nextInt(n), "N" + rnd.nextInt(n), 1 + rnd.nextInt(9));
+            for (Graph.Edge e : g.getAllEdges()) {
+                int a = Integer.parseInt(e.getSrc().substring(1));
+                int b = Integer.parseInt(e.getDest().substring(1));
+                fw[a][b] = Math.min(fw[a][b], e.getWeight());
+            }
+            int[][] direct = new int[n][];
+            for (int i = 0; i < n; i++) direct[i] = fw[i].clone(); //cheapest parallel edge
+            for (int k = 0; k < n; k++)
+                for (int i = 0; i < n; i++)
+                    for (int j = 0; j < n; j++)
+                        fw[i][j] = Math.min(fw[i][j], fw[i][k] + fw[k][j]);
+
+            CompactGraph cg = g.compact();
+            int[] toIndex = new int[n];
+            for (int i = 0; i < n; i++) toIndex[cg.id("N" + i)] = i;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    int[] path = ShortestPaths.path(cg, cg.id("N" + i), cg.id("N" + j));
+                    int len = 0;
+                    for (int k = 0; k + 1 < path.length; k++) {
+                        len += direct[toIndex[path[k]]][toIndex[path[k + 1]]];
+                    }
+                    assertEquals(fw[i][j], len, "N" + i + " -> N" + j);
+                }
+            }
+        }
+    }
+
+    @Test void aStarMatchesDijkstraAndExpandsLess() {
+        //40x40 grid of junction cells, unit steps
+        int size = 40;
+        Graph g = new Graph();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                g.setPosition(c + "," + r, c, r);
+                if (c + 1 < size) g.addEdge(c + "," + r, (c + 1) + "," + r, 1);
+                if (r + 1 < size) g.addEdge(c + "," + r, c + "," + (r + 1), 1);
+            }
+        }
+        CompactGraph cg = g.compact();
+        assertTrue(cg.hasPositions());
+        int s = cg.id("5,5");
+        int t = cg.id("12,9");
+        int[] dijkstra = ShortestPaths.path(cg, s, t);
+        int dijkstraExpanded = ShortestPaths.lastExpanded();
+        int[] aStar = ShortestPaths.aStar(cg, s, t);
+        int aStarExpanded = ShortestPaths.lastExpanded();
+        assertEquals(dijkstra.length, aStar.length);
+        assertEquals(11, g.pathWeight(g.aStar("5,5", "12,9")));
+        assertTrue(aStarExpanded * 4 < dijkstraExpanded, aStarExpanded + " vs " + dijkstraExpanded);
+    }
+}
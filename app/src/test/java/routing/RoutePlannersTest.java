@@ -0,0 +1,56 @@
+package routing;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Graph;
+
+class RoutePlannersTest {
+    @Test void everyPlannerAgreesOnDistances() {
+        Random rnd = new Random(9);
+        int n = 40;
+        Graph g = new Graph();
+        for (int i = 1; i < n; i++) g.addEdge("N" + rnd.nextInt(i), "N" + i, 1 + rnd.nextInt(9));
+        for (int e = 0; e < n; e++) g.addEdge("N" + rnd.nextInt(n), "N" + rnd.nextInt(n), 1 + rnd.nextInt(9));
+        g.addEdge("X1", "X2", 3); //separate component
+
+        RoutePlanner reference = RoutePlanners.create("table", g, null);
+        for (String name : RoutePlanners.NAMES) {
+            RoutePlanner planner = RoutePlanners.create(name, g, null);
+            assertEquals(name, planner.name());
+            for (int i = 0; i < n; i += 3) {
+                for (int j = 0; j < n; j += 2) {
+                    String a = "N" + i, b = "N" + j;
+                    assertEquals(reference.distance(a, b), planner.distance(a, b), name + " " + a + " -> " + b);
+                    List<String> path = planner.path(a, b);
+                    assertEquals(a, path.get(0));
+                    assertEquals(b, path.get(path.size() - 1));
+                }
+            }
+            assertEquals(RoutePlanner.UNREACHABLE, planner.distance("N0", "X1"), name);
+            assertTrue(planner.path("N0", "X1").isEmpty(), name);
+            assertTrue(planner.path("N0", "missing").isEmpty(), name);
+        }
+    }
+
+    @Test void unknownNamesAreRejected() {
+        Graph g = new Graph();
+        g.addEdge("A", "B", 1);
+        assertThrows(IllegalArgumentException.class, () -> RoutePlanners.create("jgrapht_ch", g, null));
+        assertThrows(IllegalArgumentException.class, () -> RoutePlanners.check("tabel"));
+        assertEquals("a*", RoutePlanners.check("a*"));
+    }
+
+    @Test void benchmarkChecksumsMatch() {
+        Graph g = new Graph();
+        for (int i = 0; i < 30; i++) g.addEdge("N" + i, "N" + ((i * 7 + 3) % 30), 1 + i % 4);
+        List<RouteBenchmark.Result> results = RouteBenchmark.run(g, 200, 1);
+        assertEquals(RoutePlanners.NAMES.size(), results.size());
+        for (RouteBenchmark.Result r : results) {
+            assertEquals(results.get(0).checksum(), r.checksum(), r.planner());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+    private sealed interface Event {}
+    private record Ping(int n) implements Event {}
+    private record Pong(int n) implements Event {}
+
+    @Test void subscribersGetTheirTypeInPublishOrder() {
+        EventBus<Event> bus = new EventBus<>(16, () -> true);
+        List<Integer> pings = new ArrayList<>();
+        List<Event> all = new ArrayList<>();
+        bus.subscribe(Ping.class, p -> pings.add(p.n()));
+        bus.subscribe(Event.class, all::add);
+        bus.publish(new Ping(1));
+        bus.publish(new Pong(2));
+        bus.publish(new Ping(3));
+        assertTrue(pings.isEmpty()); //nothing happens until the consumer drains
+
+        assertEquals(3, bus.drain());
+        assertEquals(List.of(1, 3), pings);
+        assertEquals(List.of(new Ping(1), new Pong(2), new Ping(3)), all);
+    }
+
+    @Test void anExpiredFrameBudgetLeavesTheRestForTheNextFrame() {
+        EventBus<Event> bus = new EventBus<>(1024, () -> true);
+        List<Integer> seen = new ArrayList<>();
+        bus.subscribe(Ping.class, p -> seen.add(p.n()));
+        for (int i = 0; i < 500; i++) {
+            bus.publish(new Ping(i));
+        }
+        int first = bus.drain(System.nanoTime() - 1); //out of time already: one small batch only
+        assertTrue(first > 0 && first < 500, "drained " + first);
+        assertEquals(500 - first, bus.drain(System.nanoTime() + 10_000_000_000L));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test void theConsumerMakesRoomInsteadOfWaitingForItself() {
+        EventBus<Event> bus = new EventBus<>(4, () -> true);
+        List<Integer> seen = new ArrayList<>();
+        bus.subscribe(Ping.class, p -> seen.add(p.n()));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(bus.publish(new Ping(i)));
+        }
+        bus.drain();
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), seen);
+    }
+}
@@ -0,0 +1,60 @@
+package sim;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Dish;
+import model.Order;
+import model.Staffing;
+
+class KitchenTest {
+    private static final long TOM_YUM = Dish.Szechuan_Tom_Yum.cookSec() * 1000L;
+
+    @Test void stationChefsCookTheirDishInParallel() {
+        Kitchen k = new Kitchen(Staffing.uniform(2, 0));
+        k.enqueue(new Order(1, Dish.Szechuan_Tom_Yum, 0));
+        k.enqueue(new Order(2, Dish.Szechuan_Tom_Yum, 0));
+        k.enqueue(new Order(3, Dish.Szechuan_Tom_Yum, 0));
+
+        List<Kitchen.Started> started = k.assign(0);
+        assertEquals(2, started.size());
+        assertTrue(started.stream().allMatch(s -> s.finishMs() == TOM_YUM));
+        assertEquals(1, k.stations()[Dish.Szechuan_Tom_Yum.ordinal()].getWaitingReadonly().size());
+
+        //the first chef done takes the third order
+        Order done = k.finish(started.get(0).chef().id());
+        assertEquals(1, done.tableNumber());
+        List<Kitchen.Started> next = k.assign(TOM_YUM);
+        assertEquals(1, next.size());
+        assertEquals(3, next.get(0).order().tableNumber());
+        assertEquals(2 * TOM_YUM, next.get(0).finishMs());
+    }
+
+    @Test void crossTrainedChefTakesFromTheStationFurthestBehind() {
+        Kitchen k = new Kitchen(Staffing.uniform(1, 1));
+        k.enqueue(new Order(1, Dish.Water, 0));
+        k.enqueue(new Order(2, Dish.Szechuan_Tom_Yum, 0));
+        k.enqueue(new Order(3, Dish.Szechuan_Tom_Yum, 0));
+        k.enqueue(new Order(4, Dish.Szechuan_Tom_Yum, 0));
+
+        List<Kitchen.Started> started = k.assign(0);
+        assertEquals(3, started.size());
+        Kitchen.Started floater = started.stream().filter(s -> s.chef().isCrossTrained()).findFirst().orElseThrow();
+        assertEquals(Dish.Szechuan_Tom_Yum, floater.order().dish());
+
+        //the water chef is done but does not help the tom yum station
+        Kitchen.Started water = started.stream().filter(s -> s.order().dish() == Dish.Water).findFirst().orElseThrow();
+        k.finish(water.chef().id());
+        assertTrue(k.assign(water.finishMs()).isEmpty());
+        assertEquals(2, k.busyChefs());
+    }
+
+    @Test void everyStationNeedsSomeoneToCook() {
+        int[] counts = new int[Dish.values().length];
+        assertThrows(IllegalArgumentException.class, () -> new Staffing(counts, 0));
+        assertEquals(2, new Staffing(counts, 2).total());
+        assertEquals(Dish.values().length * 2 + 1, Staffing.uniform(2, 1).total());
+    }
+}
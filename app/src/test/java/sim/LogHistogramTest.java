@@ -0,0 +1,57 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogHistogramTest {
+    @Test void bucketsCoverEveryValueInOrder() {
+        long prev = -1;
+        for (int b = 0; b < 40 * 16; b++) {
+            long high = LogHistogram.highest(b);
+            assertTrue(high > prev, "bucket " + b);
+            assertEquals(b, LogHistogram.bucket(prev + 1));
+            assertEquals(b, LogHistogram.bucket(high));
+            prev = high;
+        }
+        assertEquals(Long.MAX_VALUE, LogHistogram.highest(LogHistogram.bucket(Long.MAX_VALUE)));
+    }
+
+    @Test void percentilesAreWithinABucketOfTheExactOnes() {
+        LogHistogram h = new LogHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v);
+        }
+        assertEquals(100_000, h.count());
+        assertEquals(1, h.min());
+        assertEquals(100_000, h.max());
+        assertEquals(50_000.5, h.mean(), 1e-9);
+        for (double p : new double[] {0.5, 0.95, 0.99}) {
+            long exact = (long) (p * 100_000);
+            long got = h.percentile(p);
+            assertTrue(got >= exact && got <= exact * 1.07, p + ": " + got + " vs " + exact);
+        }
+        assertEquals(100_000, h.percentile(1.0));
+    }
+
+    @Test void threadsRecordWithoutLosingCounts() throws Exception {
+        LogHistogram h = new LogHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    h.record(i % 1000);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(100_000, h.count());
+        assertEquals(999, h.max());
+    }
+}
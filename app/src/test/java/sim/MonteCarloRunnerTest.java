@@ -0,0 +1,50 @@
+package sim;
+
+import java.awt.Point;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Graph;
+import model.GraphModel;
+import model.TableType;
+import routing.RoutePlanners;
+
+class MonteCarloRunnerTest {
+    private MonteCarloRunner runner(int parallelism) {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(30, 30, TableType.K);
+        GraphModel.Node t1 = gm.addNode(150, 30, TableType.T4);
+        GraphModel.Node t2 = gm.addNode(150, 150, TableType.T6);
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(1, 0)));
+        gm.addEdge(k.id(), t2.id(), List.of(new Point(0, 1), new Point(1, 1)));
+        Graph g = Graph.of(gm);
+        return new MonteCarloRunner(gm, () -> RoutePlanners.create("table", g, null), 2, parallelism);
+    }
+
+    @Test void resultDoesNotDependOnThreadCount() {
+        MonteCarloRunner.Summary serial = runner(1).run(200, 7);
+        MonteCarloRunner.Summary parallel = runner(4).run(200, 7);
+        assertEquals(serial, parallel);
+        assertEquals(200, serial.makespanMs().count());
+        //T4 gets 3-7 orders and T6 5-9, every one of them is delivered
+        assertTrue(serial.latencyMs().count() >= 200 * 8 && serial.latencyMs().count() <= 200 * 16);
+        assertTrue(serial.makespanMs().ci95Low() <= serial.makespanMs().mean());
+        assertTrue(serial.latencyMs().p50() <= serial.latencyMs().p99());
+    }
+
+    @Test void statsPercentilesAndInterval() {
+        long[] values = new long[100];
+        for (int i = 0; i < 100; i++) values[i] = 100 - i; //1..100 in reverse
+        Stats s = Stats.of(values);
+        assertEquals(50.5, s.mean(), 1e-9);
+        assertEquals(50, s.p50());
+        assertEquals(95, s.p95());
+        assertEquals(99, s.p99());
+        assertEquals(1, s.min());
+        assertEquals(100, s.max());
+        assertEquals(s.mean() - s.ci95Low(), s.ci95High() - s.mean(), 1e-9);
+        assertEquals(0, Stats.of(new long[0]).count());
+    }
+}
@@ -0,0 +1,114 @@
+package sim;
+
+import java.awt.Point;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Graph;
+import model.GraphModel;
+import model.TableType;
+import routing.RoutePlanners;
+
+class OrderJournalTest {
+    @TempDir Path dir;
+
+    //K -(1 cell)- T2-1 -(2 cells)- T4-2
+    private GraphModel layout() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(30, 30, TableType.K);
+        GraphModel.Node t1 = gm.addNode(150, 30, TableType.T2);
+        GraphModel.Node t2 = gm.addNode(330, 30, TableType.T4);
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(1, 0)));
+        gm.addEdge(t1.id(), t2.id(), List.of(new Point(3, 0), new Point(4, 0)));
+        return gm;
+    }
+
+    @Test void everyDeliveredOrderIsTracedAcrossSegments() throws Exception {
+        GraphModel gm = layout();
+        SimulationCore core = new SimulationCore(gm, RoutePlanners.create("table", Graph.of(gm), null), new RouteCache(), new Random(5));
+        core.setLogging(false);
+        try (OrderJournal journal = OrderJournal.attach(dir, core, 3)) { //tiny segments, so it has to roll over
+            core.scheduleTableOrders();
+            core.run();
+            assertEquals(core.ordersDelivered(), journal.written());
+        }
+        assertTrue(Files.exists(OrderJournal.segmentFile(dir, 1)), "rolled over to a second segment");
+
+        List<Long> latencies = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        long scanned = new JournalReader(dir).scan(r -> {
+            assertTrue(ids.add(r.orderId()), "order " + r.orderId() + " twice");
+            assertTrue(r.placedMs() <= r.cookStartMs(), "placed before cooking");
+            assertTrue(r.cookStartMs() + r.dish().cookSec() * 1000L == r.cookedMs(), "cooked for the dish's time");
+            assertTrue(r.cookedMs() <= r.dispatchedMs(), "cooked before dispatch");
+            assertTrue(r.dispatchedMs() < r.deliveredMs(), "dispatched before delivery");
+            assertEquals(0, r.robot());
+            assertTrue(r.chef() >= 0);
+            latencies.add(r.latencyMs());
+        });
+        assertEquals(core.ordersDelivered(), scanned);
+        assertEquals(scanned, latencies.size());
+    }
+
+    @Test void aNewJournalReplacesTheOldOneAndKeepsUndeliveredOrders() throws Exception {
+        GraphModel gm = layout();
+        SimulationCore longRun = new SimulationCore(gm, RoutePlanners.create("table", Graph.of(gm), null), new RouteCache(), new Random(5));
+        longRun.setLogging(false);
+        try (OrderJournal journal = OrderJournal.attach(dir, longRun, 3)) {
+            longRun.scheduleTableOrders();
+            longRun.run();
+        }
+        assertTrue(Files.exists(OrderJournal.segmentFile(dir, 2)), "the long run filled three segments");
+
+        SimulationCore stopped = new SimulationCore(gm, RoutePlanners.create("table", Graph.of(gm), null), new RouteCache(), new Random(5));
+        stopped.setLogging(false);
+        try (OrderJournal journal = OrderJournal.attach(dir, stopped, 3)) {
+            stopped.scheduleTableOrders();
+            stopped.runUntil(12_000); //reset half-way through the service
+        }
+        assertTrue(stopped.ordersDelivered() < stopped.ordersPlaced());
+
+        int[] undelivered = {0};
+        long scanned = new JournalReader(dir).scan(r -> {
+            if (!r.delivered()) {
+                undelivered[0]++;
+                assertEquals(-1, r.latencyMs());
+            }
+        });
+        assertEquals(stopped.ordersPlaced(), scanned); //nothing of the long run, nothing lost
+        assertEquals(stopped.ordersPlaced() - stopped.ordersDelivered(), undelivered[0]);
+    }
+
+    @Test void attachingTwiceToOneDirectoryReadsOnlyTheNewRunEvenIfLeftoversStay() throws Exception {
+        GraphModel gm = layout();
+        SimulationCore first = new SimulationCore(gm, RoutePlanners.create("table", Graph.of(gm), null), new RouteCache(), new Random(5));
+        first.setLogging(false);
+        try (OrderJournal journal = OrderJournal.attach(dir, first, 3)) {
+            first.scheduleTableOrders();
+            first.run();
+        }
+        //what attach falls back to where a still mapped segment cannot be deleted
+        for (int segment = 1; Files.exists(OrderJournal.segmentFile(dir, segment)); segment++) {
+            OrderJournal.emptySegment(OrderJournal.segmentFile(dir, segment));
+        }
+        assertEquals(3, new JournalReader(dir).scan(r -> { }), "the scan ends at the first emptied segment");
+
+        //the first journal's buffers are still mapped, nothing has unmapped them
+        SimulationCore second = new SimulationCore(gm, RoutePlanners.create("table", Graph.of(gm), null), new RouteCache(), new Random(5));
+        second.setLogging(false);
+        try (OrderJournal journal = OrderJournal.attach(dir, second, 3)) {
+            second.scheduleTableOrders();
+            second.runUntil(12_000);
+        }
+        assertEquals(second.ordersPlaced(), new JournalReader(dir).scan(r -> { }));
+    }
+}
@@ -0,0 +1,50 @@
+package sim;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+    private RouteCache.Route route(String... stops) {
+        return new RouteCache.Route(List.of(stops), List.of(stops), stops.length);
+    }
+
+    @Test void destinationOrderDoesNotMatter() {
+        RouteCache cache = new RouteCache(4);
+        RouteCache.Route first = cache.get("K", List.of("T2-1", "T4-1"), () -> route("T2-1", "T4-1"));
+        RouteCache.Route second = cache.get("K", List.of("T4-1", "T2-1"), () -> fail("should be cached"));
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test void evictsLeastRecentlyUsedAndInvalidates() {
+        RouteCache cache = new RouteCache(2);
+        cache.get("K", List.of("A"), () -> route("A"));
+        cache.get("K", List.of("B"), () -> route("B"));
+        cache.get("K", List.of("A"), () -> fail("A is cached"));
+        cache.get("K", List.of("C"), () -> route("C")); //evicts B
+        assertEquals(2, cache.size());
+        int[] planned = {0};
+        cache.get("K", List.of("B"), () -> { planned[0]++; return route("B"); });
+        assertEquals(1, planned[0]);
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hits() + cache.misses());
+    }
+
+    @Test void aTripPlannedAcrossAnInvalidateIsNotCached() {
+        RouteCache cache = new RouteCache(4);
+        RouteCache.Route stale = cache.get("K", List.of("A"), () -> {
+            cache.invalidate(); //the graph is rebuilt while this trip is being planned
+            return route("A");
+        });
+        assertEquals(List.of("A"), stale.stops()); //the caller still gets its trip
+        assertEquals(0, cache.size());
+        RouteCache.Route fresh = cache.get("K", List.of("A"), () -> route("A", "B"));
+        assertEquals(List.of("A", "B"), fresh.stops());
+        assertSame(fresh, cache.get("K", List.of("A"), () -> fail("planned after the rebuild, so cached")));
+    }
+}
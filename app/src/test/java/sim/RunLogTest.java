@@ -0,0 +1,89 @@
+package sim;
+
+import java.awt.Point;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Dish;
+import model.Graph;
+import model.GraphModel;
+import model.TableType;
+import routing.RoutePlanner;
+import routing.RoutePlanners;
+
+class RunLogTest {
+    @TempDir Path dir;
+
+    //three tables, each at the end of its own corridor two steps from the kitchen
+    private GraphModel star() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(210, 210, TableType.K);
+        GraphModel.Node t1 = gm.addNode(90, 210, TableType.T2);
+        GraphModel.Node t2 = gm.addNode(330, 210, TableType.T4);
+        GraphModel.Node t3 = gm.addNode(210, 330, TableType.T6);
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(2, 3)));
+        gm.addEdge(k.id(), t2.id(), List.of(new Point(4, 3)));
+        gm.addEdge(k.id(), t3.id(), List.of(new Point(3, 4)));
+        return gm;
+    }
+
+    private RoutePlanner planner(GraphModel gm) {
+        return RoutePlanners.create("table", Graph.of(gm), null);
+    }
+
+    @Test void varintsRoundTrip() {
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        long[] values = {0, 1, 127, 128, 300, 1L << 35, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        for (long v : values) {
+            RunLog.writeSigned(buf, v);
+        }
+        RunLog.writeVarLong(buf, 5);
+        RunLog.writeString(buf, "T2-1");
+        buf.flip();
+        for (long v : values) {
+            assertEquals(v, RunLog.readSigned(buf));
+        }
+        assertEquals(5, RunLog.readVarLong(buf));
+        assertEquals("T2-1", RunLog.readString(buf));
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test void aRecordedServiceReplaysDispatchForDispatch() throws Exception {
+        GraphModel gm = star();
+        long seed = 7;
+        SimulationCore live = new SimulationCore(gm, planner(gm), new RouteCache(), new Random(seed), 2);
+        live.setLogging(false);
+        Path file = dir.resolve("run.rlog");
+        String table = gm.findTable(1).orElseThrow().id();
+        try (RunRecorder recorder = RunRecorder.attach(file, live, gm, seed)) {
+            live.scheduleTableOrders();
+            //guests ordering by hand while the service runs, at whatever time the clock was at
+            live.runUntil(2_350);
+            recorder.order(table, Dish.Water);
+            live.placeOrder(table, Dish.Water);
+            live.runUntil(9_000);
+            recorder.order(table, Dish.Iced_Chrysanthemum_Tea);
+            live.placeOrder(table, Dish.Iced_Chrysanthemum_Tea);
+            live.run();
+        }
+
+        RunLog log = RunLog.read(file);
+        assertEquals(seed, log.header().seed());
+        assertEquals(2, log.header().robots());
+        assertEquals(List.of(2_350L, 9_000L), log.orders().stream().map(RunLog.Input::timeMs).toList());
+        assertFalse(log.dispatches().isEmpty());
+        assertTrue(Files.size(file) < 20 * (log.orders().size() + log.dispatches().size()) + 64, "compact");
+
+        Replay.Result again = Replay.run(log, gm, planner(gm));
+        assertTrue(again.sameLayout());
+        assertTrue(again.matches(log), "diverged at dispatch " + again.divergence());
+        assertEquals(log.endMs(), again.makespanMs());
+    }
+}
@@ -0,0 +1,37 @@
+package sim;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimClockTest {
+    private long wallNs;
+
+    private void wallMs(long ms) { wallNs += ms * 1_000_000L; }
+
+    @Test void scaledClockRunsFasterAndNeverJumps() {
+        ScaledClock clock = new ScaledClock(10, () -> wallNs);
+        clock.startAt(0);
+        wallMs(100);
+        assertEquals(1000, clock.nowMs());
+
+        clock.setScale(240); //rebases, the time so far is kept
+        assertEquals(1000, clock.nowMs());
+        wallMs(250);
+        assertEquals(61000, clock.nowMs());
+
+        clock.pause();
+        wallMs(5000);
+        assertEquals(61000, clock.nowMs());
+        clock.resume();
+        wallMs(1);
+        assertEquals(61240, clock.nowMs());
+    }
+
+    @Test void virtualClockOnlyMovesForward() {
+        VirtualClock clock = SimClock.virtual();
+        clock.advanceTo(500);
+        clock.advanceTo(200);
+        assertEquals(500, clock.nowMs());
+        assertThrows(IllegalArgumentException.class, () -> SimClock.scaled(0));
+    }
+}
@@ -0,0 +1,228 @@
+package sim;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Dish;
+import model.Graph;
+import model.GraphModel;
+import model.Order;
+import model.Staffing;
+import model.TableType;
+import routing.RoutePlanner;
+import routing.RoutePlanners;
+
+class SimulationCoreTest {
+    //K -(1 cell)- T2-1 -(2 cells)- T4-2
+    private GraphModel layout() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(30, 30, TableType.K);
+        GraphModel.Node t1 = gm.addNode(150, 30, TableType.T2);
+        GraphModel.Node t2 = gm.addNode(330, 30, TableType.T4);
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(1, 0)));
+        gm.addEdge(t1.id(), t2.id(), List.of(new Point(3, 0), new Point(4, 0)));
+        return gm;
+    }
+
+    //three tables, each at the end of its own corridor two steps from the kitchen
+    private GraphModel star() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(210, 210, TableType.K);     //cell 3,3
+        GraphModel.Node t1 = gm.addNode(90, 210, TableType.T2);    //cell 1,3
+        GraphModel.Node t2 = gm.addNode(330, 210, TableType.T4);   //cell 5,3
+        GraphModel.Node t3 = gm.addNode(210, 330, TableType.T6);   //cell 3,5
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(2, 3)));
+        gm.addEdge(k.id(), t2.id(), List.of(new Point(4, 3)));
+        gm.addEdge(k.id(), t3.id(), List.of(new Point(3, 4)));
+        return gm;
+    }
+
+    private RoutePlanner planner(GraphModel gm) {
+        return RoutePlanners.create("table", Graph.of(gm), null);
+    }
+
+    private SimulationCore core(GraphModel gm, long seed) {
+        return new SimulationCore(gm, planner(gm), new RouteCache(), new Random(seed));
+    }
+
+    private SimulationCore core(GraphModel gm, long seed, int robots) {
+        return new SimulationCore(gm, planner(gm), new RouteCache(), new Random(seed), robots);
+    }
+
+    @Test void singleOrderFollowsCookAndTravelTimes() {
+        GraphModel gm = layout();
+        SimulationCore core = core(gm, 1);
+        List<String> seen = new ArrayList<>();
+        core.addListener(new SimulationCore.Listener() {
+            @Override public void onCooked(Order o) { seen.add("cooked@" + core.now()); }
+            @Override public void onDelivery(int robot, String table) { seen.add(table + "@" + core.now()); }
+            @Override public void onRobotReturned(int robot) { seen.add("home@" + core.now()); }
+        });
+        core.placeOrder("2", Dish.Water); //node 2 is T2-1, 2 steps from the kitchen
+        long makespan = core.run();
+
+        long depart = Dish.Water.cookSec() * 1000L + SimulationCore.LOAD_MS;
+        assertEquals(List.of(
+            "cooked@" + Dish.Water.cookSec() * 1000L,
+            "T2-1@" + (depart + 2 * SimulationCore.MS_PER_STEP),
+            "home@" + (depart + 4 * SimulationCore.MS_PER_STEP + SimulationCore.UNLOAD_MS)
+        ), seen);
+        assertEquals(depart + 4 * SimulationCore.MS_PER_STEP + SimulationCore.UNLOAD_MS, makespan);
+        assertTrue(core.isFinished());
+        assertEquals(1, core.ordersDelivered());
+    }
+
+    @Test void ordersForAnUnreachableTableAreDroppedNotTimed() {
+        GraphModel gm = layout();
+        gm.addNode(450, 210, TableType.T2); //node 4, no corridor leads there
+        SimulationCore core = core(gm, 1);
+        core.setLogging(false);
+        core.placeOrder("2", Dish.Water);
+        core.placeOrder("4", Dish.Water);
+        long makespan = core.run();
+
+        assertTrue(makespan < 60_000, "makespan " + makespan); //no UNREACHABLE steps in any timing
+        assertEquals(1, core.ordersDelivered());
+        assertEquals(1, core.ordersDropped());
+    }
+
+    @Test void fullServiceDeliversEverythingAndIsRepeatable() {
+        GraphModel gm = layout();
+        SimulationCore a = core(gm, 42);
+        int[] completions = new int[1];
+        a.addListener(new SimulationCore.Listener() {
+            @Override public void onComplete(long makespanMs) { completions[0]++; }
+        });
+        a.scheduleTableOrders();
+        long makespan = a.run();
+
+        assertTrue(a.ordersPlaced() > 0);
+        assertEquals(a.ordersPlaced(), a.ordersDelivered());
+        assertFalse(a.isRobotBusy());
+        assertTrue(a.robotQueue().getQueue().isEmpty());
+        assertEquals(1, completions[0]);
+
+        SimulationCore b = core(gm, 42);
+        b.scheduleTableOrders();
+        assertEquals(makespan, b.run());
+    }
+
+    @Test void secondRobotTakesTheNextTripWhileTheFirstIsOut() {
+        GraphModel gm = star();
+        SimulationCore core = core(gm, 1, 2);
+        List<String> trips = new ArrayList<>();
+        core.addListener(new SimulationCore.Listener() {
+            @Override public void onDispatch(TripPlan trip) {
+                trips.add(trip.robot() + "@" + core.now());
+                //one plan for the whole trip: leaves after loading, its path ends back home on time
+                assertEquals(core.now() + SimulationCore.LOAD_MS, trip.departMs());
+                assertEquals(trip.returnMs(), (long) trip.pathTimesMs().get(trip.path().size() - 1));
+                assertEquals(trip.freeAtMs(), core.fleet().get(trip.robot()).freeAtMs());
+            }
+        });
+        //the water is ready first; robot 0 is still out when the tea is, so robot 1 takes it
+        core.placeOrder("2", Dish.Water);
+        core.placeOrder("3", Dish.Iced_Chrysanthemum_Tea);
+        core.run();
+
+        assertEquals(List.of("0@" + Dish.Water.cookSec() * 1000L,
+            "1@" + Dish.Iced_Chrysanthemum_Tea.cookSec() * 1000L), trips);
+        assertEquals(0, core.waitSteps()); //separate corridors
+        assertEquals(2, core.ordersDelivered());
+        assertEquals(0, core.busyRobots());
+    }
+
+    @Test void robotsTakeTurnsInASingleLaneCorridor() {
+        GraphModel gm = layout();
+        SimulationCore core = core(gm, 1, 2);
+        List<String> seen = new ArrayList<>();
+        core.addListener(new SimulationCore.Listener() {
+            @Override public void onDelivery(int robot, String table) { seen.add(robot + "@" + core.now()); }
+            @Override public void onRobotReturned(int robot) { seen.add(robot + " home@" + core.now()); }
+        });
+        //T4-2 is at the end of a dead end, robot 1 may only go in once robot 0 has left it
+        core.placeOrder("3", Dish.Water);
+        core.placeOrder("3", Dish.Iced_Chrysanthemum_Tea);
+        core.run();
+
+        long depart0 = Dish.Water.cookSec() * 1000L + SimulationCore.LOAD_MS;
+        long out0 = depart0 + 10 * SimulationCore.MS_PER_STEP; //5 steps out, 5 back
+        assertEquals("0@" + (depart0 + 5 * SimulationCore.MS_PER_STEP), seen.get(0));
+        assertTrue(core.waitSteps() > 0);
+        long at1 = seen.stream().filter(e -> e.startsWith("1@"))
+            .mapToLong(e -> Long.parseLong(e.substring(2))).findFirst().orElseThrow();
+        assertTrue(at1 >= out0 + 5 * SimulationCore.MS_PER_STEP, seen.toString());
+        assertEquals(2, core.ordersDelivered());
+    }
+
+    @Test void moreRobotsNeverMakeTheServiceLonger() {
+        GraphModel gm = star();
+        for (long seed = 1; seed <= 20; seed++) {
+            SimulationCore one = core(gm, seed, 1);
+            one.scheduleTableOrders();
+            SimulationCore three = core(gm, seed, 3);
+            three.scheduleTableOrders();
+            assertTrue(three.run() <= one.run(), "seed " + seed);
+        }
+    }
+
+    @Test void moreStaffShortensTheSlowestStation() {
+        long[] makespans = new long[3];
+        Staffing[] staffings = { Staffing.DEFAULT, Staffing.uniform(2, 0), Staffing.uniform(1, 2) };
+        for (int i = 0; i < staffings.length; i++) {
+            GraphModel gm = layout();
+            gm.setStaffing(staffings[i]);
+            SimulationCore core = core(gm, 1);
+            for (int j = 0; j < 3; j++) {
+                core.placeOrder("2", Dish.Szechuan_Tom_Yum);
+            }
+            makespans[i] = core.run();
+            assertEquals(3, core.ordersDelivered());
+        }
+        long tomYum = Dish.Szechuan_Tom_Yum.cookSec() * 1000L;
+        assertTrue(makespans[0] >= 3 * tomYum);                        //one chef, one after another
+        assertTrue(makespans[1] >= 2 * tomYum && makespans[1] < 3 * tomYum);
+        assertTrue(makespans[2] >= tomYum && makespans[2] < 2 * tomYum); //two cross-trained chefs help out
+    }
+
+    @Test void runUntilStopsAtTheGivenTime() {
+        GraphModel gm = layout();
+        SimulationCore core = core(gm, 1);
+        core.placeOrder("3", Dish.Egg_Tart);
+        core.runUntil(1000);
+        assertEquals(1000, core.now());
+        assertEquals(1, core.chefQueues()[Dish.Egg_Tart.ordinal()].getQueueReadonly().size());
+        assertFalse(core.isFinished());
+        core.runUntil(Long.MAX_VALUE / 2);
+        assertTrue(core.isFinished());
+    }
+
+    @Test void pipelineMetricsSeeEveryOrderOnItsWayToTheTable() {
+        GraphModel gm = star();
+        SimulationCore core = core(gm, 9, 2);
+        core.setLogging(false);
+        PipelineMetrics pipeline = PipelineMetrics.attach(core, new Metrics());
+        core.scheduleTableOrders();
+        core.run();
+
+        Metrics m = pipeline.metrics();
+        assertEquals(core.ordersPlaced(), m.counter("orders.placed").get());
+        assertEquals(core.ordersDelivered(), m.histogram("delivery.latencyMs").count());
+        assertEquals(core.ordersDelivered(), m.histogram("queue.waitMs").count());
+        assertEquals(core.ordersDelivered(), m.histogram("cook.waitMs").count());
+        long perDish = 0;
+        for (Dish d : Dish.values()) {
+            perDish += m.histogram("latency.dish." + d.name()).count();
+        }
+        assertEquals(core.ordersDelivered(), perDish);
+        assertTrue(m.histogram("delivery.latencyMs").percentile(0.5) >= Dish.Water.cookSec() * 1000L);
+        assertTrue(pipeline.robotUtilization() > 0 && pipeline.robotUtilization() <= 1);
+        assertEquals(0, m.gauge("robots.busy").get());
+        assertTrue(m.gauge("robots.busy").peak() >= 1);
+    }
+}
@@ -0,0 +1,83 @@
+package sim;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.GraphModel;
+import model.TableType;
+
+class SpaceTimePlannerTest {
+    private static final int STEP = SimulationCore.MS_PER_STEP;
+
+    //K -(2 cells)- T2-1, a dead end only one robot fits into at a time,
+    //plus K -(1 cell)- T4-2 on the other side
+    private GraphModel layout() {
+        GraphModel gm = new GraphModel();
+        GraphModel.Node k = gm.addNode(90, 90, TableType.K);        //cell 1,1
+        GraphModel.Node t1 = gm.addNode(270, 90, TableType.T2);     //cell 4,1
+        GraphModel.Node t2 = gm.addNode(90, 210, TableType.T4);     //cell 1,3
+        gm.addEdge(k.id(), t1.id(), List.of(new Point(2, 1), new Point(3, 1)));
+        gm.addEdge(k.id(), t2.id(), List.of(new Point(1, 2)));
+        return gm;
+    }
+
+    private SpaceTimePlanner planner(GraphModel gm) {
+        GraphModel.Node k = gm.findNodeByName("K").orElseThrow();
+        ReservationTable table = new ReservationTable(ReservationTable.cell(k.col(), k.row()));
+        //plain shortest-path steps between the three nodes
+        Map<String, Integer> steps = Map.of("K|T2-1", 3, "K|T4-2", 2, "T2-1|T4-2", 5);
+        return new SpaceTimePlanner(gm, table, (a, b) -> a.equals(b) ? 0
+            : steps.getOrDefault(a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a, 0), "K");
+    }
+
+    @Test void aLoneRobotWalksStraightThrough() {
+        SpaceTimePlanner p = planner(layout());
+        SpaceTimePlanner.Plan plan = p.plan(1000, List.of("T2-1"));
+        assertEquals(List.of(1000L + 3 * STEP), plan.arrivalsMs());
+        assertEquals(1000L + 6 * STEP, plan.endMs());
+        assertEquals(0, plan.waits());
+        assertEquals(List.of("K", "T2-1", "K"), plan.path());
+    }
+
+    @Test void secondRobotWaitsAtTheKitchenUntilTheCorridorIsClear() {
+        SpaceTimePlanner p = planner(layout());
+        SpaceTimePlanner.Plan first = p.plan(0, List.of("T2-1"));
+        SpaceTimePlanner.Plan second = p.plan(0, List.of("T2-1"));
+
+        //the first is back at step 6; entering the corridor as it steps out would be a head-on swap
+        assertEquals(6L * STEP, first.endMs());
+        assertEquals(6, second.waits());
+        assertEquals(List.of(9L * STEP), second.arrivalsMs());
+        assertEquals(Collections.nCopies(7, "K"), second.path().subList(0, 7));
+        assertEquals(List.of("T2-1", "K"), second.path().subList(7, 9));
+    }
+
+    @Test void robotsInDifferentCorridorsDoNotWait() {
+        SpaceTimePlanner p = planner(layout());
+        SpaceTimePlanner.Plan first = p.plan(0, List.of("T2-1"));
+        SpaceTimePlanner.Plan second = p.plan(0, List.of("T4-2"));
+        assertEquals(0, first.waits());
+        assertEquals(0, second.waits());
+        assertEquals(List.of(2L * STEP), second.arrivalsMs());
+    }
+
+    @Test void reservationsOfACellNeverOverlap() {
+        ReservationTable t = new ReservationTable(ReservationTable.cell(0, 0));
+        long c = ReservationTable.cell(2, 5);
+        t.reserve(c, 1000, 1500);
+        assertFalse(t.isFree(c, 1200, 1700));
+        assertFalse(t.isFree(c, 800, 1100));
+        assertTrue(t.isFree(c, 1500, 2000));
+        assertTrue(t.isFree(c, 500, 1000));
+        assertTrue(t.isFree(ReservationTable.cell(0, 0), 1000, 1500)); //the depot is shared
+        t.reserveMove(ReservationTable.cell(2, 4), c, 1000);
+        assertFalse(t.canMove(c, ReservationTable.cell(2, 4), 1000));
+        t.release(2000);
+        assertEquals(0, t.size());
+    }
+}
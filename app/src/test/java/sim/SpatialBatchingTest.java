@@ -0,0 +1,67 @@
+package sim;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import model.Dish;
+import model.Order;
+
+class SpatialBatchingTest {
+    //T1 and T2 are next to each other close to the kitchen, T3 is across the floor
+    private static final Map<String, Integer> STEPS = Map.of(
+        "K|T1", 2, "K|T2", 3, "K|T3", 12,
+        "T1|T2", 1, "T1|T3", 13, "T2|T3", 14);
+
+    private static int distance(String a, String b) {
+        if (a.equals(b)) return 0;
+        return STEPS.get(a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a);
+    }
+
+    private SpatialBatching policy(long maxWaitMs) {
+        return new SpatialBatching(SpatialBatchingTest::distance, n -> "T" + n, "K", maxWaitMs);
+    }
+
+    private static Order order(int table, long placedAtMs) {
+        return new Order(table, Dish.Water, placedAtMs);
+    }
+
+    @Test void tripStaysOnOneSideOfTheFloor() {
+        Order far = order(3, 0);
+        Order near1 = order(1, 100);
+        Order near2 = order(2, 200);
+        Order near1b = order(1, 300);
+        List<Order> trip = policy(60_000).pick(List.of(far, near1, near2, near1b), 3, 10_000);
+        assertEquals(3, trip.size());
+        assertFalse(trip.contains(far));
+        assertTrue(trip.containsAll(List.of(near1, near2, near1b)));
+        //FIFO would have sent the robot across the floor with the first three
+        assertEquals(List.of(far, near1, near2), BatchingPolicy.fifo().pick(List.of(far, near1, near2, near1b), 3, 10_000));
+    }
+
+    @Test void anOrderWaitingTooLongIsTakenWhateverTheDistance() {
+        Order far = order(3, 0);
+        List<Order> ready = List.of(far, order(1, 100), order(2, 200), order(1, 300));
+        List<Order> trip = policy(30_000).pick(ready, 3, 30_000);
+        assertTrue(trip.contains(far));
+        assertEquals(3, trip.size());
+    }
+
+    @Test void everythingGoesWhenItFits() {
+        List<Order> ready = List.of(order(3, 0), order(1, 100));
+        assertEquals(ready, policy(60_000).pick(ready, 3, 1000));
+    }
+
+    @Test void identicalOrdersForTheSameTableAreBothTaken() {
+        //two waters for table 1 placed in the same millisecond are equal records
+        Order first = order(1, 100);
+        Order second = order(1, 100);
+        List<Order> ready = List.of(order(3, 0), first, second, order(2, 200));
+        List<Order> trip = policy(60_000).pick(ready, 3, 10_000);
+        assertEquals(3, trip.size());
+        assertTrue(trip.stream().anyMatch(o -> o == first));
+        assertTrue(trip.stream().anyMatch(o -> o == second));
+    }
+}
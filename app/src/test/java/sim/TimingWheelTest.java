@@ -0,0 +1,62 @@
+package sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private record Item(long timeMs, long seq) {}
+
+    @Test void pollsInTimeThenSeqOrderLikeAHeap() {
+        Random random = new Random(3);
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        PriorityQueue<Item> heap = new PriorityQueue<>((a, b) ->
+            a.timeMs() != b.timeMs() ? Long.compare(a.timeMs(), b.timeMs()) : Long.compare(a.seq(), b.seq()));
+        long seq = 0;
+        long now = 0;
+        List<Item> fromWheel = new ArrayList<>();
+        List<Item> fromHeap = new ArrayList<>();
+        for (int round = 0; round < 5000; round++) {
+            //mostly cook-sized delays, some ties, now and then something far out
+            int adds = random.nextInt(3);
+            for (int i = 0; i < adds; i++) {
+                long delay = switch (random.nextInt(4)) {
+                    case 0 -> 0;
+                    case 1 -> random.nextInt(64);
+                    case 2 -> 1000L * (3 + random.nextInt(14));
+                    default -> random.nextInt(50_000_000);
+                };
+                Item item = new Item(now + delay, seq++);
+                wheel.add(item.timeMs(), item.seq(), item);
+                heap.add(item);
+            }
+            if (!heap.isEmpty() && random.nextBoolean()) {
+                assertEquals(heap.peek().timeMs(), wheel.peekTime());
+                Item w = wheel.poll();
+                fromWheel.add(w);
+                fromHeap.add(heap.poll());
+                now = w.timeMs();
+            }
+        }
+        while (!heap.isEmpty()) {
+            fromWheel.add(wheel.poll());
+            fromHeap.add(heap.poll());
+        }
+        assertEquals(fromHeap, fromWheel);
+        assertTrue(wheel.isEmpty());
+        assertNull(wheel.poll());
+        assertEquals(Long.MAX_VALUE, wheel.peekTime());
+    }
+
+    @Test void rejectsTimesBeforeTheCursor() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.add(5000, 0, "a");
+        assertEquals("a", wheel.poll());
+        wheel.add(5000, 1, "b"); //same time is still fine
+        assertThrows(IllegalArgumentException.class, () -> wheel.add(4999, 2, "c"));
+    }
+}
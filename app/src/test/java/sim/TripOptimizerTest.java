@@ -0,0 +1,59 @@
+package sim;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripOptimizerTest {
+    //random points on a grid, Manhattan distances
+    private long[][] randomTrip(Random rnd, int stops) {
+        int[] x = new int[stops + 1];
+        int[] y = new int[stops + 1];
+        for (int i = 0; i <= stops; i++) {
+            x[i] = rnd.nextInt(50);
+            y[i] = rnd.nextInt(50);
+        }
+        long[][] dist = new long[stops + 1][stops + 1];
+        for (int i = 0; i <= stops; i++)
+            for (int j = 0; j <= stops; j++)
+                dist[i][j] = Math.abs(x[i] - x[j]) + Math.abs(y[i] - y[j]);
+        return dist;
+    }
+
+    private long bruteForce(long[][] dist, int[] perm, int depth) {
+        if (depth == perm.length) return TripOptimizer.tourLength(dist, perm);
+        long best = Long.MAX_VALUE;
+        for (int i = depth; i < perm.length; i++) {
+            int t = perm[depth]; perm[depth] = perm[i]; perm[i] = t;
+            best = Math.min(best, bruteForce(dist, perm, depth + 1));
+            t = perm[depth]; perm[depth] = perm[i]; perm[i] = t;
+        }
+        return best;
+    }
+
+    @Test void heldKarpIsOptimal() {
+        Random rnd = new Random(7);
+        for (int round = 0; round < 30; round++) {
+            int k = 2 + rnd.nextInt(6);
+            long[][] dist = randomTrip(rnd, k);
+            int[] perm = new int[k];
+            for (int i = 0; i < k; i++) perm[i] = i + 1;
+            int[] order = TripOptimizer.order(dist);
+            assertEquals(bruteForce(dist, perm, 0), TripOptimizer.tourLength(dist, order));
+        }
+    }
+
+    @Test void largeBatchesVisitEveryStopOnce() {
+        long[][] dist = randomTrip(new Random(3), 40);
+        int[] order = TripOptimizer.order(dist);
+        boolean[] seen = new boolean[41];
+        for (int stop : order) {
+            assertFalse(seen[stop]);
+            seen[stop] = true;
+        }
+        assertEquals(40, order.length);
+        assertTrue(TripOptimizer.tourLength(dist, order)
+            <= TripOptimizer.tourLength(dist, TripOptimizer.nearestNeighbour(dist)));
+    }
+}